@@ -0,0 +1,60 @@
+package com.project.libmanager.config;
+
+import com.project.libmanager.entity.ActivityLog;
+import com.project.libmanager.entity.ActivityLogRollup;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the MongoDB indexes the application queries rely on.
+ * Automatic index creation from annotations is off in Spring Boot, so indexes are declared here
+ * and ensured once the application is ready; existing indexes are left untouched.
+ *
+ * @implNote Activity-log indexes put the equality field first and end with {@code timestamp, _id}
+ * descending, matching the sort of the cursor-paged search, so each filter is served by an index
+ * range scan without an in-memory sort.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexInitializer {
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        try {
+            IndexOperations activityLogs = mongoTemplate.indexOps(ActivityLog.class);
+            // Unfiltered listing and pure time ranges
+            activityLogs.ensureIndex(new Index()
+                    .on("timestamp", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)
+                    .named("timestamp_id"));
+            // One user's history, by ID or by email
+            activityLogs.ensureIndex(new Index()
+                    .on("userId", Sort.Direction.ASC).on("timestamp", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)
+                    .named("userId_timestamp_id"));
+            activityLogs.ensureIndex(new Index()
+                    .on("email", Sort.Direction.ASC).on("timestamp", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)
+                    .named("email_timestamp_id"));
+            // All occurrences of one action
+            activityLogs.ensureIndex(new Index()
+                    .on("action", Sort.Direction.ASC).on("timestamp", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)
+                    .named("action_timestamp_id"));
+
+            // Hourly counts by time range
+            mongoTemplate.indexOps(ActivityLogRollup.class).ensureIndex(new Index()
+                    .on("hour", Sort.Direction.ASC).on("action", Sort.Direction.ASC)
+                    .named("hour_action"));
+            log.info("MongoDB indexes ensured");
+        } catch (Exception e) {
+            // Queries still work without indexes, only slower; do not block startup
+            log.error("Could not ensure MongoDB indexes: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.project.libmanager.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.libmanager.constant.ErrorCode;
+import com.project.libmanager.util.TokenBucketLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the public authentication, account and password endpoints with token buckets.
+ * Every request in a configured group takes a token from the bucket of its client IP and, when the
+ * request names an account (email or phone in the query string or JSON body), from that account's
+ * bucket too. Requests over the limit get a 429 with a {@code Retry-After} header before reaching
+ * Spring Security, so credential stuffing cannot turn into BCrypt work or outgoing emails.
+ * JSON bodies in throttled groups are buffered up to {@code max-body-bytes}; larger bodies get a 413
+ * and unreadable ones a 400, so no body can skip the per-account limit.
+ *
+ * @implNote Ordered just ahead of the Spring Security filter chain. Limits live in
+ * {@link RateLimitProperties}; bucket state is local to this instance.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 10)
+@Slf4j
+public class RateLimitFilter implements Filter {
+    private static final String[] IDENTITY_FIELDS = {"email", "phoneNumber", "phone"}; // Account identifiers
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TokenBucketLimiter ipLimiter;       // Buckets per client IP
+    private final TokenBucketLimiter accountLimiter;  // Buckets per email/phone; separate cap so names cannot crowd out IPs
+    private List<Map.Entry<String, RateLimitProperties.Group>> groups; // Named groups in declaration order
+
+    // Constructor: Sets up the filter with its settings and the shared JSON mapper
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.ipLimiter = new TokenBucketLimiter(properties.getMaxIpKeys());
+        this.accountLimiter = new TokenBucketLimiter(properties.getMaxAccountKeys());
+    }
+
+    @PostConstruct
+    void init() {
+        // Snapshot groups once; avoids iterating the bound map on every request
+        groups = new ArrayList<>(properties.getGroups().entrySet());
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        // Find the group of the request; skip unthrottled paths and CORS preflight
+        Map.Entry<String, RateLimitProperties.Group> group = properties.isEnabled()
+                ? findGroup(httpRequest.getRequestURI()) : null;
+        if (group == null || "OPTIONS".equals(httpRequest.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String name = group.getKey();
+        RateLimitProperties.Group limits = group.getValue();
+        long now = System.nanoTime();
+
+        // Per-IP limit first; cheapest check and covers requests without an identity
+        long waitMillis = ipLimiter.tryAcquire(name + "|" + clientIp(httpRequest),
+                limits.getIpCapacity(), limits.getIpRefillPerMinute(), now);
+
+        // Per-account limit; may need to buffer the body, so wrap the request for downstream reads
+        HttpServletRequest forwarded = httpRequest;
+        if (waitMillis == 0) {
+            JsonNode body = null;
+            if (isJson(httpRequest)) {
+                // Read past the limit regardless of Content-Length, so chunked bodies are bounded too
+                byte[] bytes;
+                try {
+                    bytes = httpRequest.getInputStream().readNBytes(properties.getMaxBodyBytes() + 1);
+                } catch (IOException e) {
+                    writeError(httpResponse, ErrorCode.REQUEST_BODY_INVALID);
+                    return;
+                }
+                if (bytes.length > properties.getMaxBodyBytes()) {
+                    writeError(httpResponse, ErrorCode.REQUEST_BODY_TOO_LARGE);
+                    return;
+                }
+                if (bytes.length > 0) {
+                    try {
+                        body = objectMapper.readTree(bytes);
+                    } catch (IOException e) {
+                        writeError(httpResponse, ErrorCode.REQUEST_BODY_INVALID);
+                        return;
+                    }
+                }
+                forwarded = new CachedBodyRequest(httpRequest, bytes);
+            }
+            String identity = identity(httpRequest, body);
+            if (identity != null) {
+                waitMillis = accountLimiter.tryAcquire(name + "|" + identity,
+                        limits.getKeyCapacity(), limits.getKeyRefillPerMinute(), now);
+            }
+        }
+
+        if (waitMillis > 0) {
+            reject(httpResponse, waitMillis);
+            return;
+        }
+        chain.doFilter(forwarded, response);
+    }
+
+    /**
+     * Drops buckets of clients that have been quiet long enough for their buckets to be full.
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-interval:60000}")
+    public void evictIdleBuckets() {
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(properties.getIdleTimeoutMs());
+        int removed = ipLimiter.evictIdle(idleNanos) + accountLimiter.evictIdle(idleNanos);
+        if (removed > 0) {
+            log.debug("Evicted {} idle rate-limit buckets, {} IP and {} account buckets remaining",
+                    removed, ipLimiter.size(), accountLimiter.size());
+        }
+    }
+
+    private Map.Entry<String, RateLimitProperties.Group> findGroup(String uri) {
+        for (Map.Entry<String, RateLimitProperties.Group> entry : groups) {
+            String prefix = entry.getValue().getPathPrefix();
+            if (prefix != null && uri.startsWith(prefix)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (properties.isTrustForwardedFor()) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                int comma = forwardedFor.indexOf(',');
+                return (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.startsWith(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    private String identity(HttpServletRequest request, JsonNode body) {
+        // Query string first (verify-email, verify-phone, forget-password)
+        for (String field : IDENTITY_FIELDS) {
+            String value = request.getParameter(field);
+            if (value != null && !value.isBlank()) {
+                return value.trim().toLowerCase(Locale.ROOT);
+            }
+        }
+        if (body == null) {
+            return null;
+        }
+        // JSON body (login, register)
+        for (String field : IDENTITY_FIELDS) {
+            JsonNode value = body.get(field);
+            if (value != null && value.isTextual() && !value.asText().isBlank()) {
+                return value.asText().trim().toLowerCase(Locale.ROOT);
+            }
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, long waitMillis) throws IOException {
+        // Round up so clients never retry too early
+        response.setHeader("Retry-After", Long.toString((waitMillis + 999) / 1000));
+        writeError(response, ErrorCode.TOO_MANY_REQUESTS);
+    }
+
+    private void writeError(HttpServletResponse response, ErrorCode errorCode) throws IOException {
+        response.setStatus(errorCode.getStatusCode().value());
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(objectMapper.writeValueAsString(Map.of(
+                "code", errorCode.getCode(),
+                "message", errorCode.getMessage())));
+    }
+
+    /**
+     * Request wrapper that replays a small, fully buffered JSON body.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // The whole body is already in memory: it is available at once and then fully read
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.project.libmanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for {@link RateLimitFilter}, bound from {@code app.rate-limit}.
+ * Each entry of {@link #groups} maps a path prefix (e.g. {@code /auth/}) to its limits.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;               // Master switch
+    private boolean trustForwardedFor = false;    // Use X-Forwarded-For when behind a trusted proxy
+    private int maxIpKeys = 100_000;              // Upper bound on tracked per-IP buckets
+    private int maxAccountKeys = 50_000;          // Upper bound on tracked per-account buckets
+    private long idleTimeoutMs = 600_000;         // Buckets idle this long are dropped
+    private int maxBodyBytes = 4096;              // Largest JSON body accepted on throttled paths
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    /**
+     * Limits for one endpoint group.
+     */
+    @Data
+    public static class Group {
+        private String pathPrefix;                // Request URI prefix the group applies to
+        private int ipCapacity = 20;              // Burst allowed per client IP
+        private int ipRefillPerMinute = 20;       // Sustained rate per client IP
+        private int keyCapacity = 5;              // Burst allowed per email/phone
+        private int keyRefillPerMinute = 5;       // Sustained rate per email/phone
+    }
+}
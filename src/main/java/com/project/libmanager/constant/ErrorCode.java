@@ -70,7 +70,19 @@ public enum ErrorCode {
     NOT_SUBSCRIBED(1057, "User must subscribe to topic", HttpStatus.BAD_REQUEST),
     INVALID_MESSAGE_CONTENT(1057, "Message content cannot be empty", HttpStatus.BAD_REQUEST),
     TOPIC_NOT_EXISTED(1058, "Topic not existed", HttpStatus.NOT_FOUND),
-    TOPIC_ALREADY_EXISTS(1059, "Topic have already existed", HttpStatus.BAD_REQUEST);
+    TOPIC_ALREADY_EXISTS(1059, "Topic have already existed", HttpStatus.BAD_REQUEST),
+    PASSWORD_HASHING_BUSY(1060, "Server is busy processing passwords. Please try again later.", HttpStatus.SERVICE_UNAVAILABLE),
+    TOO_MANY_REQUESTS(1061, "Too many requests. Please try again later.", HttpStatus.TOO_MANY_REQUESTS),
+    OTP_ATTEMPTS_EXCEEDED(1062, "Too many incorrect OTP attempts. Please request a new OTP.", HttpStatus.BAD_REQUEST),
+    CSV_ROW_DUPLICATED(1063, "Email or phone number appears more than once in the file", HttpStatus.BAD_REQUEST),
+    CSV_HEADER_INVALID(1064, "The CSV header is missing required columns.", HttpStatus.BAD_REQUEST),
+    CSV_VALUE_INVALID(1065, "The CSV row is malformed or has an invalid value.", HttpStatus.BAD_REQUEST),
+    EXPORT_FORMAT_UNSUPPORTED(1066, "Export format must be csv or ndjson.", HttpStatus.BAD_REQUEST),
+    INVALID_CURSOR(1067, "The page cursor is invalid.", HttpStatus.BAD_REQUEST),
+    ARCHIVE_READ_FAILED(1068, "The activity log archive could not be read.", HttpStatus.INTERNAL_SERVER_ERROR),
+    ARCHIVE_WRITE_FAILED(1069, "The activity log archive could not be written.", HttpStatus.INTERNAL_SERVER_ERROR),
+    REQUEST_BODY_TOO_LARGE(1070, "The request body is too large.", HttpStatus.PAYLOAD_TOO_LARGE),
+    REQUEST_BODY_INVALID(1071, "The request body is not valid JSON.", HttpStatus.BAD_REQUEST);
 
     private int code;
     private String message;
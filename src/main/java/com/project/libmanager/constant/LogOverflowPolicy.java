@@ -0,0 +1,10 @@
+package com.project.libmanager.constant;
+
+/**
+ * What the activity-log writer does with a log entry when its queue is full.
+ */
+public enum LogOverflowPolicy {
+    BLOCK, // Wait up to the block timeout for space, then drop
+    DROP,  // Drop the entry immediately
+    SPILL  // Append the entry to the local spill file, replayed on the next start
+}
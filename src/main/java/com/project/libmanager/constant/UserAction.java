@@ -4,6 +4,7 @@ public enum UserAction {
     // Authentication
     LOGIN,
     LOGOUT,
+    LOGOUT_ALL_DEVICES,
     PASSWORD_CHANGED,
     PASSWORD_RESET_REQUEST,
     PASSWORD_RESET_SUCCESS,
@@ -19,6 +20,8 @@ public enum UserAction {
     ADMIN_CREATE_USER,
     ADMIN_DELETE_USER,
     ADMIN_UPDATE_USER,
+    IMPORT_USER_BY_CSV,
+    EXPORT_USERS,
 
     // Admin configuration
     SYSTEM_MAINTENANCE_MODE,
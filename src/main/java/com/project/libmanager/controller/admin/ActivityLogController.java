@@ -1,18 +1,25 @@
 package com.project.libmanager.controller.admin;
 
+import com.project.libmanager.constant.UserAction;
+import com.project.libmanager.criteria.ActivityLogCriteria;
 import com.project.libmanager.entity.ActivityLog;
 import com.project.libmanager.exception.AppException;
+import com.project.libmanager.service.IActivityLogArchiveService;
 import com.project.libmanager.service.IActivityLogService;
+import com.project.libmanager.service.dto.response.ActivityLogPageResponse;
+import com.project.libmanager.service.dto.response.ActivityLogRollupResponse;
 import com.project.libmanager.service.dto.response.ApiResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -20,6 +27,10 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+
+import java.time.Instant;
+import java.util.List;
 
 /**
  * REST controller for managing activity logs for admin users.
@@ -32,6 +43,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 @Tag(name = "Activity Log Management", description = "Endpoints for managing activity logs by admin users")
 public class ActivityLogController {
     private final IActivityLogService activityLogService;
+    private final IActivityLogArchiveService activityLogArchiveService;
 
     /**
      * Retrieves a paginated list of activity logs, sorted by timestamp in descending order.
@@ -60,6 +72,116 @@ public class ActivityLogController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Searches activity logs by user, email, action and time range, newest first, with cursor paging.
+     *
+     * @param criteria the {@link ActivityLogCriteria} filters (userId, email, action, from, to)
+     * @param cursor   the {@code nextCursor} returned with the previous page; omit for the first page
+     * @param limit    the number of items per page
+     * @return a {@link ResponseEntity} containing:
+     * - an {@link ApiResponse} with an {@link ActivityLogPageResponse}
+     * @throws AppException if:
+     *                      - user not authenticated (ErrorCode.UNAUTHENTICATED)
+     *                      - cursor is invalid (ErrorCode.INVALID_CURSOR)
+     *                      - from is not before to (ErrorCode.FROMDATE_BEFORE_TODATE)
+     * @implNote Pages with a {@code (timestamp, id)} cursor instead of an offset, so deep pages stay as
+     * cheap as the first and new logs do not shift results between pages.
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Search activity logs",
+            description = "Filters activity logs by user, email, action and time range (ISO-8601, from inclusive, to exclusive), newest first. "
+                    + "Pass the returned nextCursor to fetch the next page.")
+    @Parameter(name = "cursor", description = "Cursor from the previous page (omit for the first page)")
+    @Parameter(name = "limit", description = "Items per page (default: 20)")
+    public ResponseEntity<ApiResponse<ActivityLogPageResponse>> searchActivityLogs(@ParameterObject ActivityLogCriteria criteria,
+                                                                                   @RequestParam(required = false) String cursor,
+                                                                                   @RequestParam(defaultValue = "20") int limit) {
+        ApiResponse<ActivityLogPageResponse> response = ApiResponse.<ActivityLogPageResponse>builder()
+                .result(activityLogService.searchActivityLogs(criteria, cursor, limit))
+                .message("Activity retrieved successfully")
+                .build();
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Retrieves hourly counts of logged actions, including hours whose logs were removed by retention.
+     *
+     * @param from   start of the range (ISO-8601, inclusive); defaults to 7 days before {@code to}
+     * @param to     end of the range (ISO-8601, exclusive); defaults to now
+     * @param action the {@link UserAction} to count; all actions when omitted
+     * @return a {@link ResponseEntity} containing:
+     * - an {@link ApiResponse} with a list of {@link ActivityLogRollupResponse} objects
+     * @throws AppException if:
+     *                      - user not authenticated (ErrorCode.UNAUTHENTICATED)
+     *                      - from is not before to (ErrorCode.FROMDATE_BEFORE_TODATE)
+     * @implNote Delegates to {@link IActivityLogService}, which merges the rollups with live logs.
+     */
+    @GetMapping("/hourly-counts")
+    @Operation(summary = "Get hourly activity counts",
+            description = "Retrieves the number of logged actions per hour and action type, for trend charts.")
+    public ResponseEntity<ApiResponse<List<ActivityLogRollupResponse>>> getHourlyCounts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) UserAction action) {
+        ApiResponse<List<ActivityLogRollupResponse>> response = ApiResponse.<List<ActivityLogRollupResponse>>builder()
+                .result(activityLogService.getHourlyCounts(from, to, action))
+                .message("Activity counts retrieved successfully")
+                .build();
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Searches activity logs that were moved to the cold archive, one page at a time.
+     *
+     * @param criteria the {@link ActivityLogCriteria} filters (userId, email, action, from, to)
+     * @param cursor   the {@code nextCursor} of the previous page; omit for the first page
+     * @param limit    the number of logs per page
+     * @return a {@link ResponseEntity} containing:
+     * - an {@link ApiResponse} with an {@link ActivityLogPageResponse} of archived logs and the next cursor
+     * @throws AppException if:
+     *                      - user not authenticated (ErrorCode.UNAUTHENTICATED)
+     *                      - the cursor is invalid (ErrorCode.INVALID_CURSOR)
+     *                      - from is not before to (ErrorCode.FROMDATE_BEFORE_TODATE)
+     *                      - the archive cannot be read (ErrorCode.ARCHIVE_READ_FAILED)
+     * @implNote Narrow the time range to read fewer archive segments; results come in archive order.
+     */
+    @GetMapping("/archive")
+    @Operation(summary = "Search archived activity logs",
+            description = "Filters activity logs moved out of the database by user, email, action and time range (ISO-8601). "
+                    + "Pass the returned nextCursor to fetch the next page.")
+    @Parameter(name = "cursor", description = "Cursor from the previous page (omit for the first page)")
+    @Parameter(name = "limit", description = "Items per page (default: 20)")
+    public ResponseEntity<ApiResponse<ActivityLogPageResponse>> searchArchive(@ParameterObject ActivityLogCriteria criteria,
+                                                                              @RequestParam(required = false) String cursor,
+                                                                              @RequestParam(defaultValue = "20") int limit) {
+        ApiResponse<ActivityLogPageResponse> response = ApiResponse.<ActivityLogPageResponse>builder()
+                .result(activityLogArchiveService.searchArchive(criteria, cursor, limit))
+                .message("Archived activity retrieved successfully")
+                .build();
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Moves old activity logs to the cold archive now instead of waiting for the scheduled job.
+     *
+     * @return a {@link ResponseEntity} containing:
+     * - an {@link ApiResponse} with the number of logs archived
+     * @throws AppException if:
+     *                      - user not authenticated (ErrorCode.UNAUTHENTICATED)
+     *                      - the archive cannot be written (ErrorCode.ARCHIVE_WRITE_FAILED)
+     * @implNote Runs synchronously; waits for a scheduled run in progress to finish first.
+     */
+    @PostMapping("/archive")
+    @Operation(summary = "Archive old activity logs",
+            description = "Moves activity logs older than the configured age from the database to the archive.")
+    public ResponseEntity<ApiResponse<Long>> archiveOldLogs() {
+        ApiResponse<Long> response = ApiResponse.<Long>builder()
+                .result(activityLogArchiveService.archiveOldLogs())
+                .message("Activity archived successfully")
+                .build();
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Deletes all activity logs.
      *
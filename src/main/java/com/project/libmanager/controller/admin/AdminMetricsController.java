@@ -0,0 +1,42 @@
+package com.project.libmanager.controller.admin;
+
+import com.project.libmanager.security.BoundedPasswordEncoder;
+import com.project.libmanager.service.dto.response.ActivityLogWriterStatsResponse;
+import com.project.libmanager.service.dto.response.ApiResponse;
+import com.project.libmanager.service.impl.ActivityLogBatchWriter;
+import com.project.libmanager.service.dto.response.PasswordHashingStatsResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("admin/metrics")
+@RequiredArgsConstructor
+@Slf4j
+@SecurityRequirement(name = "JWT Authentication")
+@Tag(name = "Admin Metrics", description = "Endpoints for runtime metrics by admin users")
+public class AdminMetricsController {
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final ActivityLogBatchWriter activityLogBatchWriter;
+
+    @GetMapping("/password-hashing")
+    public ResponseEntity<ApiResponse<PasswordHashingStatsResponse>> getPasswordHashingStats() {
+        return ResponseEntity.ok(ApiResponse.<PasswordHashingStatsResponse>builder()
+                .message("Get Password Hashing Metrics Success !!!")
+                .result(passwordEncoder.getStats())
+                .build());
+    }
+
+    @GetMapping("/activity-log-writer")
+    public ResponseEntity<ApiResponse<ActivityLogWriterStatsResponse>> getActivityLogWriterStats() {
+        return ResponseEntity.ok(ApiResponse.<ActivityLogWriterStatsResponse>builder()
+                .message("Get Activity Log Writer Metrics Success !!!")
+                .result(activityLogBatchWriter.getStats())
+                .build());
+    }
+}
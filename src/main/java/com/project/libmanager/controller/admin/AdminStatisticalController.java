@@ -3,6 +3,7 @@ package com.project.libmanager.controller.admin;
 import com.project.libmanager.service.IStatisticalService;
 import com.project.libmanager.service.dto.response.ApiResponse;
 import com.project.libmanager.service.dto.response.BookResponse;
+import com.project.libmanager.service.dto.response.StatisticalSummaryResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -72,4 +73,12 @@ public class AdminStatisticalController {
                 .result(statisticalService.countBorrowForMonthOfYear(year))
                 .build());
     }
+
+    @GetMapping("/summary")
+    public ResponseEntity<ApiResponse<StatisticalSummaryResponse>> getSummary() {
+        return ResponseEntity.ok(ApiResponse.<StatisticalSummaryResponse>builder()
+                .message("Get Statistical Summary Success !!!")
+                .result(statisticalService.getSummary())
+                .build());
+    }
 }
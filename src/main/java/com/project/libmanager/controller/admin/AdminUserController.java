@@ -2,10 +2,13 @@ package com.project.libmanager.controller.admin;
 
 import com.project.libmanager.criteria.UserCriteria;
 import com.project.libmanager.exception.AppException;
+import com.project.libmanager.service.IUserExportService;
+import com.project.libmanager.service.IUserImportService;
 import com.project.libmanager.service.IUserService;
 import com.project.libmanager.service.dto.request.UserCreateRequest;
 import com.project.libmanager.service.dto.request.UserUpdateRequest;
 import com.project.libmanager.service.dto.response.ApiResponse;
+import com.project.libmanager.service.dto.response.UserImportResponse;
 import com.project.libmanager.service.dto.response.UserResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,6 +21,9 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -28,6 +34,11 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Objects;
+import java.util.Optional;
 
 /**
  * REST controller for managing user operations by admin users.
@@ -41,6 +52,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 @Tag(name = "Admin User Management", description = "Endpoints for managing users by admin users")
 public class AdminUserController {
     private final IUserService userService;
+    private final IUserImportService userImportService;
+    private final IUserExportService userExportService;
 
     /**
      * Creates a new user with the provided details.
@@ -66,6 +79,44 @@ public class AdminUserController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Imports users from a CSV file.
+     *
+     * @param file the CSV file containing user data
+     * @return a {@link ResponseEntity} containing:
+     * - an {@link ApiResponse} with a {@link UserImportResponse} listing counts and rejected rows
+     * @throws AppException if:
+     *                      - user not authenticated (ErrorCode.UNAUTHENTICATED)
+     *                      - user not authorized (ErrorCode.UNAUTHORIZED)
+     *                      - file is empty (ErrorCode.FILE_EMPTY)
+     *                      - header lacks a required column (ErrorCode.CSV_HEADER_INVALID)
+     * @implNote Delegates to {@link IUserImportService}; rows that fail validation or already exist are
+     * reported in the response instead of failing the request.
+     */
+    @PostMapping("/import")
+    @Operation(summary = "Import users from CSV",
+            description = "Creates users from a CSV file with columns email, phoneNumber, password, fullName "
+                    + "and optional birthDate (yyyy/MM/d), roles (separated by ;) and verificationStatus.")
+    @Parameter(name = "file", description = "CSV file containing user data")
+    public ResponseEntity<ApiResponse<UserImportResponse>> importUsers(@RequestParam("file") MultipartFile file) {
+        boolean checkCSV = Optional.ofNullable(file.getOriginalFilename())
+                .map(name -> name.endsWith(".csv"))
+                .orElse(false);
+
+        if (!Objects.equals(file.getContentType(), "text/csv") && !checkCSV) {
+            ApiResponse<UserImportResponse> response = ApiResponse.<UserImportResponse>builder()
+                    .message("Only CSV files are supported.")
+                    .build();
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(response);
+        }
+
+        ApiResponse<UserImportResponse> response = ApiResponse.<UserImportResponse>builder()
+                .message("Users imported.")
+                .result(userImportService.importUsers(file))
+                .build();
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Updates an existing user with the provided details.
      *
@@ -143,6 +194,34 @@ public class AdminUserController {
         return ResponseEntity.ok().body(response);
     }
 
+    /**
+     * Exports users matching the criteria as a CSV or NDJSON download.
+     *
+     * @param criteria the search criteria for filtering users, as for {@code /search}
+     * @param format   {@code csv} (default) or {@code ndjson}
+     * @return a {@link ResponseEntity} streaming the exported users as an attachment
+     * @throws AppException if:
+     *                      - user not authenticated (ErrorCode.UNAUTHENTICATED)
+     *                      - user not authorized (ErrorCode.UNAUTHORIZED)
+     *                      - format is not supported (ErrorCode.EXPORT_FORMAT_UNSUPPORTED)
+     * @implNote The body is written while users are read from the database, so the export is never
+     * held in memory.
+     */
+    @GetMapping("/export")
+    @Operation(summary = "Export users",
+            description = "Streams users matching the search criteria as CSV or NDJSON.")
+    @Parameter(name = "format", description = "csv (default) or ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@ParameterObject UserCriteria criteria,
+                                                             @RequestParam(defaultValue = "csv") String format) {
+        StreamingResponseBody body = userExportService.exportUsers(criteria, format);
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.parseMediaType("application/x-ndjson") : MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"users." + (ndjson ? "ndjson" : "csv") + "\"")
+                .body(body);
+    }
+
     /**
      * Retrieves a paginated list of all users.
      *
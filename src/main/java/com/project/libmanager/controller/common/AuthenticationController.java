@@ -86,6 +86,31 @@ public class AuthenticationController {
         return ResponseEntity.ok(apiResponse);
     }
 
+    /**
+     * Logs out the authenticated user from every device.
+     *
+     * @param accessToken the access token from the cookie
+     * @param response    the HTTP response to clear cookies
+     * @return a {@link ResponseEntity} containing:
+     * - an {@link ApiResponse} with the number of sessions that were invalidated
+     * @throws AppException if:
+     *                      - user not authenticated (ErrorCode.UNAUTHENTICATED)
+     *                      - invalid token (ErrorCode.INVALID_TOKEN)
+     * @implNote Delegates to {@link IAuthenticationService#logoutAll} which invalidates all sessions in one update.
+     */
+    @PostMapping("/logout-all")
+    @Operation(summary = "Logout from all devices",
+            description = "Invalidates every session of the authenticated user.")
+    @Parameter(name = "accessToken", description = "Access token from cookie")
+    public ResponseEntity<ApiResponse<Integer>> logoutAll(
+            @CookieValue(name = "accessToken", required = false) String accessToken, HttpServletResponse response) {
+        ApiResponse<Integer> apiResponse = ApiResponse.<Integer>builder()
+                .message("Logout from all devices successfully")
+                .result(aService.logoutAll(accessToken, response))
+                .build();
+        return ResponseEntity.ok(apiResponse);
+    }
+
     /**
      * Refreshes the access token using the refresh token.
      *
@@ -15,7 +15,10 @@ import org.springframework.web.bind.annotation.RestController;
 import com.project.libmanager.criteria.BookCriteria;
 import com.project.libmanager.service.dto.response.ApiResponse;
 import com.project.libmanager.service.dto.response.BookResponse;
+import com.project.libmanager.service.dto.response.TrendingBookResponse;
 import com.project.libmanager.service.IBookService;
+import com.project.libmanager.service.IRelatedBookService;
+import com.project.libmanager.service.ITrendingBookService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -23,6 +26,8 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 
+import java.util.List;
+
 /**
  * REST controller for retrieving book information.
  * Provides endpoints for fetching all books, a specific book by ID, and searching books with criteria.
@@ -34,6 +39,8 @@ import lombok.RequiredArgsConstructor;
 @Tag(name = "Book Management", description = "Endpoints for retrieving and searching books")
 public class BookController {
     private final IBookService bookService;
+    private final ITrendingBookService trendingBookService;
+    private final IRelatedBookService relatedBookService;
 
     /**
      * Retrieves a paginated list of all books.
@@ -62,6 +69,24 @@ public class BookController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Retrieves the books borrowed most often during the trending window.
+     *
+     * @return a {@link ResponseEntity} containing:
+     * - an {@link ApiResponse} with a {@link List} of {@link TrendingBookResponse} objects, most borrowed first
+     * @implNote Served from an in-memory snapshot maintained by {@link ITrendingBookService}; no database access per request.
+     */
+    @GetMapping("/trending")
+    @Operation(summary = "Get trending books",
+            description = "Retrieves the most borrowed books of the recent window.")
+    public ResponseEntity<ApiResponse<List<TrendingBookResponse>>> getTrendingBooks() {
+        ApiResponse<List<TrendingBookResponse>> response = ApiResponse.<List<TrendingBookResponse>>builder()
+                .result(trendingBookService.getTrendingBooks())
+                .message("Trending books retrieved successfully")
+                .build();
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Retrieves details of a specific book by its ID.
      *
@@ -85,6 +110,26 @@ public class BookController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Retrieves books that readers of the given book also borrowed.
+     *
+     * @param bookId the ID of the reference book
+     * @return a {@link ResponseEntity} containing:
+     * - an {@link ApiResponse} with a {@link List} of related {@link BookResponse} objects, strongest match first
+     * @implNote Neighbours are precomputed by {@link IRelatedBookService}; an unknown book yields an empty list.
+     */
+    @GetMapping("/{bookId}/related")
+    @Operation(summary = "Get related books",
+            description = "Retrieves books frequently borrowed together with the given book.")
+    @Parameter(description = "ID of the reference book")
+    public ResponseEntity<ApiResponse<List<BookResponse>>> getRelatedBooks(@PathVariable Long bookId) {
+        ApiResponse<List<BookResponse>> response = ApiResponse.<List<BookResponse>>builder()
+                .result(relatedBookService.getRelatedBooks(bookId))
+                .message("Related books retrieved successfully")
+                .build();
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Searches for books based on specified criteria with pagination.
      *
@@ -0,0 +1,22 @@
+package com.project.libmanager.criteria;
+
+import com.project.libmanager.constant.UserAction;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+
+@Data
+public class ActivityLogCriteria {
+    private Long userId;
+
+    private String email;
+
+    private UserAction action;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant to;
+}
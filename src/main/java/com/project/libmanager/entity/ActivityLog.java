@@ -2,11 +2,14 @@ package com.project.libmanager.entity;
 
 import com.project.libmanager.constant.UserAction;
 import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
+import java.util.List;
 
 @Document(collection = "activity_logs")
 @Builder
@@ -21,4 +24,15 @@ public class ActivityLog {
     private Instant timestamp;
     private Object beforeChange;
     private Object afterChange;
+    private List<Change> changes; // Field-level patch from beforeChange; replaces afterChange when set
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Change {
+        private String op;      // add, remove or replace
+        private String path;    // JSON pointer into beforeChange
+        private Object value;   // New value; null for remove
+    }
 }
@@ -0,0 +1,25 @@
+package com.project.libmanager.entity;
+
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+@Document(collection = "activity_log_pending_rollups")
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityLogPendingRollup {
+    @Id
+    private String id;          // Also recorded on the rollup once its count has been added
+    private Instant hour;       // Start of the hour, UTC
+    private String action;      // Stored action name; may be null
+    private List<Object> logIds; // Logs being removed; all of the same hour and action
+    private Instant createdAt;
+}
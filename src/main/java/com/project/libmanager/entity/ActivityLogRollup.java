@@ -0,0 +1,27 @@
+package com.project.libmanager.entity;
+
+import com.project.libmanager.constant.UserAction;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+@Document(collection = "activity_log_rollups")
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityLogRollup {
+    @Id
+    private String id;          // "<hour ISO-8601>|<action>", one document per hour and action
+    private Instant hour;       // Start of the hour, UTC
+    private UserAction action;
+    private long count;         // Logs of this action in this hour removed by retention
+    private Instant updatedAt;
+    private List<String> appliedRemovals; // IDs of the removal markers already counted here
+}
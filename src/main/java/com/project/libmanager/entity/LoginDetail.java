@@ -8,6 +8,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -23,7 +24,10 @@ import java.time.Instant;
 @AllArgsConstructor
 @Entity
 @EqualsAndHashCode(callSuper = false)
-@Table(name = "login_detail")
+@Table(name = "login_detail", indexes = {
+        @Index(name = "idx_login_detail_expired_at", columnList = "expired_at"),
+        @Index(name = "idx_login_detail_enabled_updated_at", columnList = "enabled, updated_at")
+})
 public class LoginDetail extends AuditTable{
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
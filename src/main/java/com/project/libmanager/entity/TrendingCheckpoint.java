@@ -0,0 +1,34 @@
+package com.project.libmanager.entity;
+
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+@Document(collection = "trending_checkpoints")
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingCheckpoint {
+    @Id
+    private String id;
+    private Instant savedAt;
+    private List<Bucket> buckets;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private long epochDay;
+        private List<Long> bookIds;
+        private List<Long> counts;
+        private List<Long> errors;
+    }
+}
@@ -14,6 +14,8 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Builder;
@@ -26,6 +28,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@NamedEntityGraph(name = User.WITH_ROLES_GRAPH, attributeNodes = @NamedAttributeNode("roles"))
 @Data
 @NoArgsConstructor
 @Builder
@@ -71,6 +74,7 @@ public class User extends AuditTable {
     private int lateReturnCount;
 
     public static final int MAX_LATE_RETURNS = 3;
+    public static final String WITH_ROLES_GRAPH = "User.withRoles"; // Fetches roles in the same query
 
     public boolean isBannedFromBorrowing() {
         return lateReturnCount >= MAX_LATE_RETURNS;
@@ -0,0 +1,123 @@
+package com.project.libmanager.repository;
+
+import com.project.libmanager.constant.UserAction;
+import com.project.libmanager.entity.ActivityLogPendingRollup;
+import com.project.libmanager.entity.ActivityLogRollup;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Atomic updates of the hourly {@link ActivityLogRollup} counters.
+ *
+ * @implNote Counters are only ever incremented with {@code $inc} in an upsert keyed by hour and
+ * action, so concurrent writers (retention, archiving, delete-all) never lose updates. Removing logs
+ * and counting them are two writes, so {@link #removeAndRollUp} records an
+ * {@link ActivityLogPendingRollup} first and tags the counter with its ID when adding to it; a run that
+ * stops in between leaves the marker behind, and {@link #recoverPending} finishes it without counting
+ * any log twice.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityLogRollupRepository {
+    private final MongoTemplate mongoTemplate; // Upserts and range queries
+
+    /**
+     * Removes logs of one hour and action and adds them to that hour's counter.
+     *
+     * @param hour       start of the hour, UTC
+     * @param action     the stored action name; may be null
+     * @param logIds     IDs of the logs to remove, all of that hour and action
+     * @param collection the activity log collection
+     * @return the number of logs removed
+     * @implNote The marker is written before the delete and dropped after the counter has been tagged
+     * with it, so every crash point is either redone or skipped by {@link #recoverPending}.
+     */
+    public synchronized long removeAndRollUp(Instant hour, String action, List<Object> logIds, String collection) {
+        if (logIds.isEmpty()) {
+            return 0;
+        }
+        ActivityLogPendingRollup pending = mongoTemplate.insert(ActivityLogPendingRollup.builder()
+                .id(new ObjectId().toHexString())
+                .hour(hour)
+                .action(action)
+                .logIds(logIds)
+                .createdAt(Instant.now())
+                .build());
+        long deleted = mongoTemplate.remove(new Query(Criteria.where("_id").in(logIds)), collection).getDeletedCount();
+        complete(pending, deleted);
+        return deleted;
+    }
+
+    /**
+     * Finishes removals left by a run that stopped part way.
+     *
+     * @param collection the activity log collection
+     * @return the number of logs counted while finishing
+     * @implNote Every marked log existed when its marker was written and is gone once the delete is
+     * repeated, so the marker's ID count is what the interrupted run removed. A counter already tagged
+     * with the marker is not added to again.
+     */
+    public synchronized long recoverPending(String collection) {
+        long counted = 0;
+        for (ActivityLogPendingRollup pending : mongoTemplate.findAll(ActivityLogPendingRollup.class)) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(pending.getLogIds())), collection);
+            complete(pending, pending.getLogIds().size());
+            counted += pending.getLogIds().size();
+        }
+        if (counted > 0) {
+            log.warn("Counted {} activity logs left by interrupted removals", counted);
+        }
+        return counted;
+    }
+
+    /**
+     * Adds a marked removal to its counter once, then drops the marker.
+     */
+    private void complete(ActivityLogPendingRollup pending, long count) {
+        if (count > 0) {
+            try {
+                // Matches only if this marker has not been applied; otherwise the upsert's insert clashes on _id
+                mongoTemplate.upsert(
+                        new Query(Criteria.where("_id").is(pending.getHour() + "|" + pending.getAction())
+                                .and("appliedRemovals").ne(pending.getId())),
+                        new Update()
+                                .inc("count", count)
+                                .addToSet("appliedRemovals", pending.getId())
+                                .setOnInsert("hour", pending.getHour())
+                                .setOnInsert("action", pending.getAction())
+                                .set("updatedAt", Instant.now()),
+                        ActivityLogRollup.class);
+            } catch (DuplicateKeyException e) {
+                // Already counted before the run stopped
+            }
+        }
+        mongoTemplate.remove(pending);
+    }
+
+    /**
+     * Finds the counters of hours starting in a range.
+     *
+     * @param from   first hour, inclusive
+     * @param to     end of the range, exclusive
+     * @param action the action to keep, or null for all
+     * @return the matching {@link ActivityLogRollup} documents
+     */
+    public List<ActivityLogRollup> findByHourRange(Instant from, Instant to, UserAction action) {
+        Criteria criteria = Criteria.where("hour").gte(from).lt(to);
+        if (action != null) {
+            criteria = criteria.and("action").is(action);
+        }
+        return mongoTemplate.find(new Query(criteria), ActivityLogRollup.class);
+    }
+}
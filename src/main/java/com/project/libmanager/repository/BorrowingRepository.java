@@ -2,12 +2,16 @@ package com.project.libmanager.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import feign.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.hibernate.jpa.HibernateHints;
+import jakarta.persistence.QueryHint;
 
 import com.project.libmanager.entity.Book;
 import com.project.libmanager.entity.Borrowing;
@@ -53,4 +57,9 @@ public interface BorrowingRepository extends JpaRepository<Borrowing, Long> {
                 ORDER BY m.month
             """, nativeQuery = true)
     List<Object[]> countBorrowingsByMonth(@Param("year") int year);
+
+    // Integer.MIN_VALUE makes MySQL stream rows one by one instead of buffering the whole result
+    @Query("SELECT b.user.id, b.book.id FROM Borrowing b ORDER BY b.user.id, b.borrowDate DESC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<Object[]> streamUserBookPairs();
 }
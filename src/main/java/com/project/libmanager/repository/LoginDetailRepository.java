@@ -4,8 +4,11 @@ import com.project.libmanager.entity.LoginDetail;
 import com.project.libmanager.entity.User;
 import feign.Param;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,4 +22,36 @@ public interface LoginDetailRepository extends JpaRepository<LoginDetail, Long>
 
     List<LoginDetail> findByUserId(Long userId);
     void deleteByUser(User user);
-}
\ No newline at end of file
+
+    @Query("SELECT l.jti FROM LoginDetail l WHERE l.user.id = :userId")
+    List<String> findJtisByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT l.jti FROM LoginDetail l WHERE l.user.id = :userId AND l.enabled = true")
+    List<String> findEnabledJtisByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE LoginDetail l SET l.enabled = false, l.updatedAt = :now WHERE l.user.id = :userId AND l.enabled = true")
+    int disableAllByUserId(@Param("userId") Long userId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("""
+            UPDATE LoginDetail l SET l.expiredAt = :expiredAt, l.updatedAt = :now
+            WHERE l.jti = :jti AND l.enabled = true AND l.expiredAt > :now
+            """)
+    int extendActiveSession(@Param("jti") String jti, @Param("expiredAt") Instant expiredAt, @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM LoginDetail l WHERE l.user.id = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM login_detail WHERE expired_at < :now LIMIT :batchSize", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM login_detail WHERE enabled = false AND updated_at < :disabledBefore LIMIT :batchSize",
+            nativeQuery = true)
+    int deleteDisabledBatch(@Param("disabledBefore") Instant disabledBefore, @Param("batchSize") int batchSize);
+}
@@ -4,8 +4,11 @@ import com.project.libmanager.constant.OtpType;
 import com.project.libmanager.entity.OtpVerification;
 import feign.Param;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
 
 public interface OtpVerificationRepository extends JpaRepository<OtpVerification, Long> {
@@ -23,4 +26,9 @@ public interface OtpVerificationRepository extends JpaRepository<OtpVerification
     @Query("SELECT o FROM OtpVerification o WHERE o.phoneNumber = :phoneNumber AND o.type = :type")
     Optional<OtpVerification> findByPhoneNumberAndType(@Param("phoneNumber") String phoneNumber,
                                                        @Param("type") OtpType type);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OtpVerification o WHERE o.expiredAt < :now")
+    int deleteExpired(@Param("now") Instant now);
 }
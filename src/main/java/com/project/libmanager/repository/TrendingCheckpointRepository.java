@@ -0,0 +1,7 @@
+package com.project.libmanager.repository;
+
+import com.project.libmanager.entity.TrendingCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface TrendingCheckpointRepository extends MongoRepository<TrendingCheckpoint, String> {
+}
@@ -0,0 +1,86 @@
+package com.project.libmanager.repository;
+
+import com.project.libmanager.entity.Role;
+import com.project.libmanager.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * JDBC batch writes for the {@code users} and {@code user_roles} tables.
+ * Hibernate cannot batch inserts of {@link User} because its IDENTITY key forces one round trip
+ * per row, so bulk imports write through JDBC batches instead.
+ *
+ * @implNote Bypasses the JPA lifecycle: audit columns must be set by the caller, and writes join the
+ * surrounding transaction through the shared data source.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserBatchRepository {
+    private static final String INSERT_USER = """
+            INSERT INTO users (email, phone_number, password, verification_status, full_name, birth_date,
+                               deleted, late_return_count, created_at, created_by)
+            VALUES (:email, :phoneNumber, :password, :verificationStatus, :fullName, :birthDate,
+                    :deleted, :lateReturnCount, :createdAt, :createdBy)
+            """;
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (:userId, :roleId)";
+    private static final String SELECT_IDS = "SELECT id, email FROM users WHERE email IN (:emails)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate; // Batch statements with named parameters
+
+    /**
+     * Inserts users and their role links in two batches, setting each user's generated ID.
+     *
+     * @param users the users to insert; audit columns and roles must be set
+     * @implNote IDs are read back by email in one query rather than through generated keys, which
+     * drivers do not reliably return for batches.
+     */
+    public void insertAll(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        // Batch the user rows
+        MapSqlParameterSource[] userParams = users.stream()
+                .map(user -> new MapSqlParameterSource()
+                        .addValue("email", user.getEmail())
+                        .addValue("phoneNumber", user.getPhoneNumber())
+                        .addValue("password", user.getPassword())
+                        .addValue("verificationStatus", user.getVerificationStatus().name())
+                        .addValue("fullName", user.getFullName())
+                        .addValue("birthDate", user.getBirthDate() == null ? null : Timestamp.from(user.getBirthDate()))
+                        .addValue("deleted", user.isDeleted())
+                        .addValue("lateReturnCount", user.getLateReturnCount())
+                        .addValue("createdAt", Timestamp.from(user.getCreatedAt()))
+                        .addValue("createdBy", user.getCreatedBy()))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT_USER, userParams);
+
+        // Read generated IDs back; emails are unique
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(SELECT_IDS,
+                new MapSqlParameterSource("emails", users.stream().map(User::getEmail).toList()),
+                rs -> {
+                    ids.put(rs.getString("email").toLowerCase(Locale.ROOT), rs.getLong("id"));
+                });
+
+        // Batch the role links
+        List<MapSqlParameterSource> roleParams = new ArrayList<>();
+        for (User user : users) {
+            user.setId(ids.get(user.getEmail().toLowerCase(Locale.ROOT)));
+            for (Role role : user.getRoles()) {
+                roleParams.add(new MapSqlParameterSource()
+                        .addValue("userId", user.getId())
+                        .addValue("roleId", role.getId()));
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE, roleParams.toArray(MapSqlParameterSource[]::new));
+    }
+}
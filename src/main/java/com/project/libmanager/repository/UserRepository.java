@@ -1,15 +1,25 @@
 package com.project.libmanager.repository;
 
 import com.project.libmanager.entity.User;
+import feign.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.lang.NonNull;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
     boolean existsByEmail(String email);
@@ -23,6 +33,34 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     @NonNull
     Page<User> findAll(@NonNull Pageable pageable);
 
+    @EntityGraph(User.WITH_ROLES_GRAPH)
+    List<User> findWithRolesByIdIn(Collection<Long> ids);
+
+    @EntityGraph(User.WITH_ROLES_GRAPH)
+    Optional<User> findWithRolesByEmail(String email);
+
+    @EntityGraph(User.WITH_ROLES_GRAPH)
+    Optional<User> findWithRolesById(Long id);
+
+    @EntityGraph(User.WITH_ROLES_GRAPH)
+    List<User> findAllWithRolesBy();
+
+    // Integer.MIN_VALUE makes MySQL stream rows one by one instead of buffering the whole result
+    @Query("SELECT u.email, u.phoneNumber FROM User u")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<Object[]> streamEmailsAndPhoneNumbers();
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findEmailsIn(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.phoneNumber FROM User u WHERE u.phoneNumber IN :phoneNumbers")
+    List<String> findPhoneNumbersIn(@Param("phoneNumbers") Collection<String> phoneNumbers);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
+
     @Query(value = """
                 SELECT COUNT(DISTINCT u.id) 
                 FROM User u 
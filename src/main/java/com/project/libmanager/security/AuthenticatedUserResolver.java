@@ -0,0 +1,154 @@
+package com.project.libmanager.security;
+
+import com.project.libmanager.constant.ErrorCode;
+import com.project.libmanager.entity.User;
+import com.project.libmanager.exception.AppException;
+import com.project.libmanager.repository.UserRepository;
+import com.project.libmanager.util.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the {@link User} behind the current security context.
+ * The user is resolved at most once per request (cached as a request attribute) and, across
+ * requests, served from a short-TTL email-to-user cache, so a service call chain that needs the
+ * current user several times costs at most one query.
+ *
+ * @implNote {@link #getCurrentUser()} returns a detached copy with roles loaded: fine for reading
+ * fields or referencing the user from new entities, but not for modifying the user. Code that changes
+ * the current user uses {@link #getCurrentUserForUpdate()} instead. Every place that modifies a user
+ * calls {@link #evict(String)}; entries also expire after {@code app.current-user-cache.ttl}. Evictions
+ * are repeated after the surrounding transaction commits, so a concurrent request cannot cache the
+ * state from before the change for a whole TTL.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuthenticatedUserResolver {
+    private static final String REQUEST_ATTRIBUTE = AuthenticatedUserResolver.class.getName() + ".user";
+
+    private final UserRepository userRepository;                             // Loads users with roles
+    private final TransactionUtil transactionUtil;                           // Repeats evictions after commit
+    private final Map<String, CachedUser> users = new ConcurrentHashMap<>(); // Email -> detached snapshot with expiry
+
+    @Value("${app.current-user-cache.ttl:30}")
+    private long ttlSeconds;                    // Seconds a snapshot may be served without reloading
+
+    /**
+     * Returns the authenticated user for reading.
+     *
+     * @return a detached {@link User} with roles initialized
+     * @throws AppException if:
+     *                      - authentication is missing (ErrorCode.UNAUTHORIZED)
+     *                      - user not found (ErrorCode.USER_NOT_EXISTED)
+     */
+    public User getCurrentUser() {
+        String email = currentEmail();
+
+        // Request scope first; repeated lookups within one request are free
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User user
+                && email.equals(user.getEmail())) {
+            return user;
+        }
+
+        // Shared snapshot next; copy it so request-local changes never leak into the cache
+        CachedUser cached = users.get(email);
+        User user;
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            user = copyOf(cached.user());
+        } else {
+            User loaded = userRepository.findWithRolesByEmail(email)
+                    .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+            users.put(email, new CachedUser(copyOf(loaded), System.currentTimeMillis() + ttlSeconds * 1000));
+            user = copyOf(loaded);
+        }
+
+        if (attributes != null) {
+            attributes.setAttribute(REQUEST_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    /**
+     * Returns the authenticated user as a managed entity for modification.
+     *
+     * @return the {@link User} loaded in the current persistence context, roles initialized
+     * @throws AppException if:
+     *                      - authentication is missing (ErrorCode.UNAUTHORIZED)
+     *                      - user not found (ErrorCode.USER_NOT_EXISTED)
+     * @implNote Always reads the database and evicts the cached snapshot, since the caller is about
+     * to change the user.
+     */
+    public User getCurrentUserForUpdate() {
+        String email = currentEmail();
+        evict(email);
+        return userRepository.findWithRolesByEmail(email)
+                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+    }
+
+    /**
+     * Evicts the cached snapshot of a user, now and again once the current transaction commits.
+     *
+     * @param email the user's email
+     */
+    public void evict(String email) {
+        if (email == null) {
+            return;
+        }
+        users.remove(email);
+        // A lookup before the commit reloads the old committed state; drop that snapshot afterwards
+        transactionUtil.runAfterCommit(() -> users.remove(email));
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User user
+                && email.equals(user.getEmail())) {
+            attributes.removeAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * Removes expired snapshots.
+     */
+    @Scheduled(fixedDelayString = "${app.current-user-cache.cleanup-interval:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        users.values().removeIf(cached -> cached.expiresAt() < now);
+    }
+
+    private String currentEmail() {
+        // Validate authentication; fails fast if invalid
+        SecurityContext context = SecurityContextHolder.getContext();
+        Authentication authentication = context == null ? null : context.getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new AppException(ErrorCode.UNAUTHORIZED);
+        }
+        return authentication.getName();
+    }
+
+    private static User copyOf(User source) {
+        // Shallow copy of columns; lazy borrowings stay unset so the copy never touches a closed session,
+        // and the password hash is left out so a snapshot can never be written back over it
+        User copy = new User();
+        BeanUtils.copyProperties(source, copy, "roles", "borrowings", "password");
+        copy.setRoles(source.getRoles() == null ? null : new HashSet<>(source.getRoles()));
+        return copy;
+    }
+
+    private record CachedUser(User user, long expiresAt) {
+    }
+}
@@ -0,0 +1,249 @@
+package com.project.libmanager.security;
+
+import com.project.libmanager.constant.ErrorCode;
+import com.project.libmanager.exception.AppException;
+import com.project.libmanager.service.dto.response.PasswordHashingStatsResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link PasswordEncoder} that runs BCrypt work on a dedicated, bounded thread pool.
+ * The pool is sized to the available cores so hashing can never occupy more CPUs than exist,
+ * and its queue is bounded so bursts beyond capacity are shed immediately with a 503 instead of
+ * piling up behind every request thread.
+ *
+ * @implNote Callers still wait for the result, but waiting threads are parked rather than
+ * burning CPU, so non-authentication requests keep being served during login bursts.
+ * Rejections and timeouts surface as {@link AppException} with {@link ErrorCode#PASSWORD_HASHING_BUSY}.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private static final long BULK_RETRY_MILLIS = 10;  // Back-off when a bulk task finds the queue full
+
+    private final BCryptPasswordEncoder delegate;     // Actual BCrypt implementation
+    private final ThreadPoolExecutor executor;        // Dedicated hashing pool
+    private final int strength;                       // BCrypt cost factor used for new hashes
+    private final int queueCapacity;                  // Maximum number of waiting hash tasks
+    private final long timeoutMillis;                 // Maximum time a caller waits for a result
+    private final boolean rehashOnLogin;              // Report weaker hashes for upgrade on login
+
+    private final LongAdder completed = new LongAdder();     // Hash operations finished
+    private final LongAdder rejected = new LongAdder();      // Operations shed (queue full or timed out)
+    private final LongAdder hashNanos = new LongAdder();     // Total time spent hashing
+    private final LongAdder waitNanos = new LongAdder();     // Total time spent queued
+    private final AtomicLong maxHashNanos = new AtomicLong(); // Slowest single hash
+
+    /**
+     * Creates the encoder and starts its pool.
+     *
+     * @param strength      BCrypt log rounds for new hashes
+     * @param poolSize      number of hashing threads; values below 1 default to the core count
+     * @param queueCapacity maximum number of queued hash tasks before rejecting
+     * @param timeoutMillis maximum time a caller waits, including queueing
+     * @param rehashOnLogin whether hashes with a lower cost factor are upgraded after login
+     */
+    public BoundedPasswordEncoder(int strength, int poolSize, int queueCapacity, long timeoutMillis,
+                                  boolean rehashOnLogin) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeoutMillis;
+        this.rehashOnLogin = rehashOnLogin;
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + counter.incrementAndGet());
+                    t.setDaemon(true); // Never block JVM shutdown
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()); // Fail fast when saturated
+        this.executor.prestartAllCoreThreads();
+    }
+
+    /**
+     * Hashes a raw password on the hashing pool.
+     *
+     * @param rawPassword the password to hash
+     * @return the BCrypt hash
+     * @throws AppException if the pool is saturated or the hash times out (ErrorCode.PASSWORD_HASHING_BUSY)
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Hashes many raw passwords in parallel on the hashing pool.
+     *
+     * @param rawPasswords the passwords to hash
+     * @param parallelism  maximum number of hashes in flight at once, capped at the pool size; values
+     *                     below 1 leave one pool thread for interactive logins
+     * @return the BCrypt hashes, in the same order as {@code rawPasswords}
+     * @throws AppException if the pool stays saturated or a hash times out (ErrorCode.PASSWORD_HASHING_BUSY)
+     * @implNote Meant for bulk jobs such as user import. Limiting the tasks in flight keeps the shared
+     * queue free for interactive logins; when logins do fill it, bulk tasks back off and retry instead
+     * of failing, up to the usual timeout per hash.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords, int parallelism) {
+        int poolSize = executor.getCorePoolSize();
+        int permits = parallelism > 0 ? Math.min(parallelism, poolSize) : Math.max(1, poolSize - 1);
+        Semaphore inFlight = new Semaphore(permits);
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        boolean done = false;
+        try {
+            for (CharSequence raw : rawPasswords) {
+                inFlight.acquire();
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+                Future<String> future;
+                // Back off while interactive work fills the queue
+                while ((future = tryEnqueue(() -> delegate.encode(raw), inFlight::release)) == null) {
+                    if (System.nanoTime() > deadline) {
+                        inFlight.release();
+                        rejected.increment();
+                        throw new AppException(ErrorCode.PASSWORD_HASHING_BUSY);
+                    }
+                    TimeUnit.MILLISECONDS.sleep(BULK_RETRY_MILLIS);
+                }
+                futures.add(future);
+            }
+            List<String> hashes = new ArrayList<>(futures.size());
+            for (Future<String> future : futures) {
+                hashes.add(await(future));
+            }
+            done = true;
+            return hashes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException(ErrorCode.PASSWORD_HASHING_BUSY);
+        } finally {
+            if (!done) {
+                futures.forEach(future -> future.cancel(true)); // Free the pool for other callers
+            }
+        }
+    }
+
+    /**
+     * Checks a raw password against a stored hash on the hashing pool.
+     *
+     * @param rawPassword     the password supplied by the user
+     * @param encodedPassword the stored BCrypt hash
+     * @return {@code true} if the password matches
+     * @throws AppException if the pool is saturated or the check times out (ErrorCode.PASSWORD_HASHING_BUSY)
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Reports whether a stored hash uses a lower cost factor than the configured one.
+     *
+     * @param encodedPassword the stored BCrypt hash
+     * @return {@code true} if the hash should be upgraded
+     * @implNote Only parses the hash prefix, so it runs on the caller thread. Spring Security then
+     * re-encodes the password and hands it to {@link CustomUserDetailsService#updatePassword}.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return rehashOnLogin && delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Returns a snapshot of pool and latency statistics.
+     *
+     * @return a {@link PasswordHashingStatsResponse} describing the hashing pool
+     */
+    public PasswordHashingStatsResponse getStats() {
+        long done = completed.sum();
+        return PasswordHashingStatsResponse.builder()
+                .strength(strength)
+                .poolSize(executor.getCorePoolSize())
+                .activeThreads(executor.getActiveCount())
+                .queueDepth(executor.getQueue().size())
+                .queueCapacity(queueCapacity)
+                .completed(done)
+                .rejected(rejected.sum())
+                .avgHashMillis(done == 0 ? 0 : hashNanos.sum() / (double) done / 1_000_000)
+                .maxHashMillis(maxHashNanos.get() / 1_000_000.0)
+                .avgQueueWaitMillis(done == 0 ? 0 : waitNanos.sum() / (double) done / 1_000_000)
+                .build();
+    }
+
+    /**
+     * Stops the hashing pool; registered as the bean's destroy method.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future = tryEnqueue(task, null);
+        if (future == null) {
+            rejected.increment();
+            log.warn("Password hashing pool saturated, rejecting request (queue={})", executor.getQueue().size());
+            throw new AppException(ErrorCode.PASSWORD_HASHING_BUSY);
+        }
+        return await(future);
+    }
+
+    private <T> Future<T> tryEnqueue(Callable<T> task, Runnable onDone) {
+        long queuedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                long start = System.nanoTime();
+                waitNanos.add(start - queuedAt);
+                try {
+                    return task.call();
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    hashNanos.add(elapsed);
+                    maxHashNanos.accumulateAndGet(elapsed, Math::max);
+                    completed.increment();
+                    if (onDone != null) {
+                        onDone.run();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true); // Drop it if still queued
+            rejected.increment();
+            throw new AppException(ErrorCode.PASSWORD_HASHING_BUSY);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AppException(ErrorCode.PASSWORD_HASHING_BUSY);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException; // e.g. IllegalArgumentException from BCrypt
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
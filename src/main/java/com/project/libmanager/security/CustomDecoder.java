@@ -1,26 +1,31 @@
 package com.project.libmanager.security;
 
-import com.nimbusds.jose.crypto.MACVerifier;
-import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.SignedJWT;
 import com.project.libmanager.constant.TokenType;
 import com.project.libmanager.entity.LoginDetail;
 import com.project.libmanager.exception.AppException;
 import com.project.libmanager.repository.LoginDetailRepository;
-import lombok.RequiredArgsConstructor;
+import com.project.libmanager.util.BoundedLruCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.BadJwtException;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.spec.SecretKeySpec;
-import java.text.ParseException;
-import java.util.Date;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Objects;
 
 /**
@@ -28,14 +33,41 @@ import java.util.Objects;
  * Extends default decoding with additional checks for token type and login session status.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class CustomDecoder implements JwtDecoder {
-    @Value("${jwt.signing.key}")
-    private String signKey;                         // Secret key for verifying token signatures
-
     private final LoginDetailRepository loginDetailRepository; // Repository for login session data
-    private NimbusJwtDecoder nimbusJwtDecoder;      // Decoder instance, lazily initialized
+    private final SessionRevocationCache sessionRevocationCache; // In-memory session state; avoids per-request lookups
+    private final NimbusJwtDecoder nimbusJwtDecoder;           // Thread-safe decoder built once at startup
+    private final BoundedLruCache<String, Jwt> validatedTokens; // Token hash -> already verified Jwt
+
+    /**
+     * Builds the decoder once with the signing key and all token validators.
+     *
+     * @param signKey                secret key for verifying token signatures
+     * @param cacheSize              number of recently validated tokens kept
+     * @param loginDetailRepository  repository for login session data
+     * @param sessionRevocationCache in-memory session state
+     * @implNote Validators reject expired tokens without clock skew, tokens without an expiry
+     * and tokens that are not access tokens, matching the checks previously done by hand.
+     */
+    public CustomDecoder(@Value("${jwt.signing.key}") String signKey,
+                         @Value("${app.jwt-decoder.cache-size:1024}") int cacheSize,
+                         LoginDetailRepository loginDetailRepository,
+                         SessionRevocationCache sessionRevocationCache) {
+        this.loginDetailRepository = loginDetailRepository;
+        this.sessionRevocationCache = sessionRevocationCache;
+        this.validatedTokens = new BoundedLruCache<>(cacheSize);
+
+        // Create secret key spec; aligns with HS512 algorithm
+        SecretKeySpec secretKeySpec = new SecretKeySpec(signKey.getBytes(), "HmacSHA512");
+        this.nimbusJwtDecoder = NimbusJwtDecoder.withSecretKey(secretKeySpec)
+                .macAlgorithm(MacAlgorithm.HS512)
+                .build();
+        this.nimbusJwtDecoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                new JwtTimestampValidator(Duration.ZERO),
+                new JwtClaimValidator<Instant>(JwtClaimNames.EXP, Objects::nonNull),
+                new JwtClaimValidator<String>("type", TokenType.ACCESS.name()::equals)));
+    }
 
     /**
      * Decodes and validates a JWT token, ensuring it is an access token and tied to an active session.
@@ -45,68 +77,63 @@ public class CustomDecoder implements JwtDecoder {
      * @throws JwtException if decoding or validation fails, including:
      *                      - {@link BadJwtException} for invalid signature, expiration, type, or session
      *                      - {@link AppException} propagated from repository lookup
-     * @implNote Verifies signature, expiration, token type, and session status before delegating to
-     * {@link NimbusJwtDecoder} for final decoding.
+     * @implNote Parses and verifies the token in a single pass through the pre-built {@link NimbusJwtDecoder}.
+     * Recently validated tokens are served from a bounded LRU keyed by the token's SHA-256 hash, re-checking
+     * only expiry. Session status comes from {@link SessionRevocationCache} and only falls back to the
+     * database for unknown sessions.
      */
     @Override
     public Jwt decode(String token) throws JwtException {
         try {
-            // Parse token; converts string to JWT object
-            SignedJWT signedJWT = SignedJWT.parse(token);
-
-            // Verify signature; uses HMAC with secret key
-            if (!signedJWT.verify(new MACVerifier(signKey.getBytes()))) {
-                log.error("Invalid token signature");
-                throw new BadJwtException("Invalid token signature");
+            String tokenHash = hash(token);
+            Jwt jwt = validatedTokens.get(tokenHash);
+            if (jwt != null && !jwt.getExpiresAt().isAfter(Instant.now())) {
+                // Cached result has expired; drop it and validate again to get the proper error
+                validatedTokens.remove(tokenHash);
+                jwt = null;
             }
-
-            // Extract claims; contains token metadata
-            JWTClaimsSet claimsSet = signedJWT.getJWTClaimsSet();
-            String jwtID = claimsSet.getJWTID();         // Unique token identifier
-            String typeToken = claimsSet.getStringClaim("type"); // Token type
-
-            // Check expiration; ensures token is still valid
-            if (claimsSet.getExpirationTime() == null || claimsSet.getExpirationTime().before(new Date())) {
-                log.error("Token has expired");
-                throw new BadJwtException("Token has expired");
+            if (jwt == null) {
+                // Parse, verify signature and run validators once
+                jwt = nimbusJwtDecoder.decode(token);
+                validatedTokens.put(tokenHash, jwt);
             }
 
-            // Validate token type; restricts to access tokens only
-            if (!TokenType.ACCESS.name().equals(typeToken)) {
-                log.error("Token is not access token");
-                throw new BadJwtException("Token is invalid because not an access token");
+            // Check login session; served from memory unless the session state is unknown
+            String jwtID = jwt.getId();
+            Boolean sessionActive = sessionRevocationCache.lookup(jwtID);
+            if (sessionActive == null) {
+                LoginDetail loginDetail = loginDetailRepository.findByJti(jwtID)
+                        .orElseThrow(() -> new BadJwtException("User does not exist"));
+                sessionActive = loginDetail.isEnabled();
+                if (sessionActive) {
+                    sessionRevocationCache.markActive(jwtID, jwt.getExpiresAt());
+                } else {
+                    sessionRevocationCache.markRevoked(jwtID);
+                }
             }
-
-            // Check login session; ensures token is tied to an active session
-            LoginDetail loginDetail = loginDetailRepository.findByJti(jwtID)
-                    .orElseThrow(() -> new BadJwtException("User does not exist"));
-            if (!loginDetail.isEnabled()) {
+            if (!sessionActive) {
                 log.error("Account is logged out!");
                 throw new BadJwtException("Token is invalid because the user is logged out");
             }
 
-            // Initialize decoder lazily; reuses instance for efficiency
-            if (Objects.isNull(nimbusJwtDecoder)) {
-                // Create secret key spec; aligns with HS512 algorithm
-                SecretKeySpec secretKeySpec = new SecretKeySpec(signKey.getBytes(), "HmacSHA512");
-                // Build decoder; configures Nimbus with secret key and algorithm
-                nimbusJwtDecoder = NimbusJwtDecoder.withSecretKey(secretKeySpec)
-                        .macAlgorithm(MacAlgorithm.HS512)
-                        .build();
-            }
-
-            // Delegate decoding; returns validated Jwt object
-            return nimbusJwtDecoder.decode(token);
-        } catch (ParseException e) {
-            // Log parsing error; indicates malformed token
-            log.error("Error parsing token claims: {}", e);
-            throw new BadJwtException("Error parsing token claims");
+            return jwt;
         } catch (JwtException | AppException e) {
-            log.error("Error parsing token claims: {}", e);
+            log.error("Error parsing token claims: {}", e.getMessage());
             throw e;
         } catch (Exception e) {
-            log.error("Unexpected error decoding JWT: {}", e);
+            log.error("Unexpected error decoding JWT: {}", e.getMessage());
             throw new BadJwtException("Unexpected error decoding JWT");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Hashes a token for use as a cache key, so raw tokens are not retained in memory.
+     *
+     * @param token the raw token
+     * @return the Base64-encoded SHA-256 digest of the token
+     */
+    private static String hash(String token) throws NoSuchAlgorithmException {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(digest);
+    }
+}
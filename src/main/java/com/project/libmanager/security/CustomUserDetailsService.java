@@ -8,6 +8,7 @@ import com.project.libmanager.validation.UserStatusValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -19,7 +20,7 @@ import org.springframework.stereotype.Service;
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private final IUserService userService;                // Service for user data retrieval
     private final UserStatusValidator userStatusValidator; // Validator for user status checks
 
@@ -30,12 +31,13 @@ public class CustomUserDetailsService implements UserDetailsService {
      * @return a {@link UserDetails} object containing user information and authorities
      * @throws UsernameNotFoundException if the user is not found (wrapped as {@link AppException})
      * @throws AppException              if the user does not exist (ErrorCode.USER_NOT_EXISTED)
-     * @implNote Fetches user by email via {@link IUserService} and wraps in {@link CustomUserDetails}.
+     * @implNote Fetches user and roles by email in one query via {@link IUserService} and wraps them in
+     * {@link CustomUserDetails}; the same {@link User} is reused by the rest of the login pipeline.
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // Fetch user by email; assumes email is the username in this system
-        User user = userService.findByEmail(username);
+        // Fetch user with roles by email; assumes email is the username in this system
+        User user = userService.findByEmailWithRoles(username);
         // Check if user exists; null check to enforce existence
         if (user == null) {
             throw new AppException(ErrorCode.USER_NOT_EXISTED);
@@ -43,4 +45,22 @@ public class CustomUserDetailsService implements UserDetailsService {
         // Construct UserDetails; includes user data and status validation
         return new CustomUserDetails(user, userStatusValidator);
     }
-}
\ No newline at end of file
+
+    /**
+     * Stores a re-encoded password after a successful login whose hash used an outdated cost factor.
+     *
+     * @param user        the authenticated {@link UserDetails}
+     * @param newPassword the password re-hashed at the configured cost factor
+     * @return the same {@link UserDetails}, so the login pipeline keeps using the loaded user
+     * @implNote Called by Spring Security's DaoAuthenticationProvider only when
+     * {@code PasswordEncoder.upgradeEncoding} reports the stored hash as weaker than configured,
+     * which {@link BoundedPasswordEncoder} never does when {@code app.password-hash.rehash-on-login} is off.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        // Persist the stronger hash with a single update
+        userService.upgradePasswordHash(user.getUsername(), newPassword);
+        log.info("Upgraded password hash cost factor for {}", user.getUsername());
+        return user;
+    }
+}
@@ -10,7 +10,9 @@ import com.nimbusds.jwt.SignedJWT;
 import com.project.libmanager.constant.ErrorCode;
 import com.project.libmanager.constant.TokenType;
 import com.project.libmanager.entity.User;
+import com.project.libmanager.entity.Role;
 import com.project.libmanager.exception.AppException;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -19,7 +21,10 @@ import org.springframework.stereotype.Component;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Utility class for generating and verifying JWT (JSON Web Tokens) for authentication.
@@ -43,6 +48,23 @@ public class JwtTokenProvider {
 
     private static final String ISSUER = "NTL";                   // Token issuer identifier
     private static final JWSAlgorithm SIGNING_ALGORITHM = JWSAlgorithm.HS512; // HMAC-SHA512 algorithm for signing
+    private static final JWSHeader SIGNING_HEADER = new JWSHeader(SIGNING_ALGORITHM); // Immutable header shared by all tokens
+
+    private final Map<Set<String>, String> scopeCache = new ConcurrentHashMap<>(); // Role names -> scope claim
+    private MACSigner signer;              // Thread-safe signer built once from the signing key
+    private MACVerifier verifier;          // Thread-safe verifier built once from the signing key
+
+    /**
+     * Builds the signer and verifier once the signing key is injected.
+     *
+     * @throws JOSEException if the signing key is too short for HS512
+     * @implNote Both objects are immutable and thread-safe, so every token issued or verified reuses them.
+     */
+    @PostConstruct
+    void initCrypto() throws JOSEException {
+        signer = new MACSigner(signKey.getBytes());
+        verifier = new MACVerifier(signKey.getBytes());
+    }
 
     /**
      * Generates a JWT token for a user with specified type and JTI.
@@ -55,6 +77,21 @@ public class JwtTokenProvider {
      * @implNote Determines duration based on token type and delegates to buildToken.
      */
     public String generateToken(User user, TokenType tokenType, String jti) {
+        return generateToken(user.getEmail(), buildScope(user), tokenType, jti);
+    }
+
+    /**
+     * Generates a JWT token from already known claims, without touching the user entity.
+     *
+     * @param subject   the user's email
+     * @param scope     the scope claim (see {@link #buildScope(User)})
+     * @param tokenType the {@link TokenType} (ACCESS, REFRESH, or RESET_PASSWORD)
+     * @param jti       the JWT ID (unique identifier for the token)
+     * @return a serialized JWT token string
+     * @throws AppException if token creation fails (ErrorCode.UNCATEGORIZED_EXCEPTION)
+     * @implNote Determines duration based on token type and delegates to buildToken.
+     */
+    public String generateToken(String subject, String scope, TokenType tokenType, String jti) {
         // Select duration based on token type; defaults to access token duration
         long duration;
         if (tokenType.equals(TokenType.REFRESH)) {
@@ -65,9 +102,9 @@ public class JwtTokenProvider {
             duration = validDuration;
         }
         // Log token generation; aids debugging
-        log.info("Generating token: {}, duration: {}", tokenType, duration);
+        log.debug("Generating token: {}, duration: {}", tokenType, duration);
         // Delegate to buildToken; encapsulates core token creation logic
-        return buildToken(user, tokenType, duration, jti);
+        return buildToken(subject, scope, tokenType, duration, jti);
     }
 
     /**
@@ -80,14 +117,29 @@ public class JwtTokenProvider {
      * @implNote Reuses JTI to maintain session continuity and uses refresh duration.
      */
     public String renewRefreshToken(User user, String jti) {
+        return renewRefreshToken(user.getEmail(), buildScope(user), jti);
+    }
+
+    /**
+     * Renews a refresh token from already known claims with an existing JTI.
+     *
+     * @param subject the user's email
+     * @param scope   the scope claim (see {@link #buildScope(User)})
+     * @param jti     the existing JWT ID to reuse
+     * @return a serialized JWT refresh token string
+     * @throws AppException if token creation fails (ErrorCode.UNCATEGORIZED_EXCEPTION)
+     * @implNote Reuses JTI to maintain session continuity and uses refresh duration.
+     */
+    public String renewRefreshToken(String subject, String scope, String jti) {
         // Build refresh token; reuses JTI with configured refresh duration
-        return buildToken(user, TokenType.REFRESH, refreshDuration, jti);
+        return buildToken(subject, scope, TokenType.REFRESH, refreshDuration, jti);
     }
 
     /**
      * Builds and signs a JWT token with user claims and specified parameters.
      *
-     * @param user      the {@link User} for whom the token is created
+     * @param subject   the user's email
+     * @param scope     the scope claim of the user
      * @param tokenType the {@link TokenType} of the token
      * @param duration  the validity duration in seconds
      * @param jti       the JWT ID for uniqueness
@@ -95,23 +147,23 @@ public class JwtTokenProvider {
      * @throws AppException if signing fails (ErrorCode.UNCATEGORIZED_EXCEPTION)
      * @implNote Constructs claims (email, scope, type), signs with HMAC-SHA512, and serializes.
      */
-    private String buildToken(User user, TokenType tokenType, long duration, String jti) {
+    private String buildToken(String subject, String scope, TokenType tokenType, long duration, String jti) {
         try {
             // Build claims set; includes standard and custom claims
             JWTClaimsSet claims = new JWTClaimsSet.Builder()
-                    .subject(user.getEmail())                           // User identifier
+                    .subject(subject)                                   // User identifier
                     .issuer(ISSUER)                                     // Token issuer
                     .issueTime(new Date())                              // Current timestamp
                     .expirationTime(Date.from(Instant.now().plus(duration, ChronoUnit.SECONDS))) // Expiration
                     .jwtID(jti)                                         // Unique token ID
-                    .claim("scope", buildScope(user))             // User roles as scope
+                    .claim("scope", scope)                        // User roles as scope
                     .claim("type", tokenType.name())              // Token type
                     .build();
 
             // Create signed JWT; uses HS512 algorithm
-            SignedJWT signedJWT = new SignedJWT(new JWSHeader(SIGNING_ALGORITHM), claims);
-            // Sign with secret key; ensures integrity and authenticity
-            signedJWT.sign(new MACSigner(signKey.getBytes()));
+            SignedJWT signedJWT = new SignedJWT(SIGNING_HEADER, claims);
+            // Sign with the shared signer; ensures integrity and authenticity
+            signedJWT.sign(signer);
 
             // Serialize to string; compact token format
             return signedJWT.serialize();
@@ -138,7 +190,7 @@ public class JwtTokenProvider {
             // Parse token; converts string to JWT object
             SignedJWT signedJWT = SignedJWT.parse(token);
             // Verify signature; uses HMAC-SHA512 and secret key
-            if (!signedJWT.verify(new MACVerifier(signKey.getBytes()))) {
+            if (!signedJWT.verify(verifier)) {
                 log.error("Invalid token");
                 throw new AppException(ErrorCode.UNAUTHENTICATED);
             }
@@ -166,16 +218,22 @@ public class JwtTokenProvider {
      * @return a space-separated string of role names prefixed with "ROLE_" (e.g., "ROLE_USER ROLE_ADMIN")
      * @throws AppException if user is null (ErrorCode.USER_NOT_EXISTED)
      * @implNote Maps roles to "ROLE_<name>" format and joins with spaces; returns empty string if no roles.
+     * The joined string is cached per distinct set of role names, since only a handful of combinations exist.
      */
-    private String buildScope(User user) {
+    public String buildScope(User user) {
         // Validate user; prevents null pointer issues
         if (user == null) {
             throw new AppException(ErrorCode.USER_NOT_EXISTED);
         }
-        // Convert roles to scope; handles null roles gracefully
-        return Optional.ofNullable(user.getRoles())
-                .map(roles -> roles.stream().map(role -> "ROLE_" + role.getName()).toList()) // Prefix roles
-                .map(roleList -> String.join(" ", roleList))                         // Join with spaces
-                .orElse("");                                                         // Empty if no roles
+        // Handle missing roles gracefully
+        if (user.getRoles() == null || user.getRoles().isEmpty()) {
+            return "";
+        }
+        // Reuse the scope string built for the same role combination
+        Set<String> roleNames = user.getRoles().stream().map(Role::getName).collect(Collectors.toUnmodifiableSet());
+        return scopeCache.computeIfAbsent(roleNames, names -> names.stream()
+                .sorted()
+                .map(name -> "ROLE_" + name)                                         // Prefix roles
+                .collect(Collectors.joining(" ")));                                  // Join with spaces
     }
 }
\ No newline at end of file
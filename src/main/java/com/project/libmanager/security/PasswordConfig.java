@@ -1,14 +1,28 @@
 package com.project.libmanager.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class PasswordConfig {
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10);
+    @Value("${app.password-hash.strength:10}")
+    private int strength;
+
+    @Value("${app.password-hash.pool-size:0}")
+    private int poolSize;
+
+    @Value("${app.password-hash.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.password-hash.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    @Value("${app.password-hash.rehash-on-login:true}")
+    private boolean rehashOnLogin;
+
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder() {
+        return new BoundedPasswordEncoder(strength, poolSize, queueCapacity, timeoutMillis, rehashOnLogin);
     }
 }
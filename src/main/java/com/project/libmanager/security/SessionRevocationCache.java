@@ -0,0 +1,92 @@
+package com.project.libmanager.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of login session state keyed by JWT identifier (JTI).
+ * Holds a TTL map of revoked JTIs and a bounded positive cache of active ones so that
+ * {@link CustomDecoder} does not need a database lookup on every authenticated request.
+ *
+ * @implNote Revocations are recorded synchronously by the services that disable or delete
+ * login details, so this cache is authoritative for a single application instance. Active
+ * entries expire after a short TTL, which bounds staleness if sessions are revoked elsewhere.
+ */
+@Component
+@Slf4j
+public class SessionRevocationCache {
+    private final Map<String, Long> revokedJtis = new ConcurrentHashMap<>(); // JTI -> epoch millis until which it is remembered
+    private final Map<String, Long> activeJtis = new ConcurrentHashMap<>();  // JTI -> epoch millis until which it is trusted
+
+    @Value("${jwt.valid-duration}")
+    private long validDuration;                 // Access token lifetime (seconds); revoked JTIs are kept this long
+
+    @Value("${app.session-cache.active-ttl:300}")
+    private long activeTtl;                     // Seconds an active session is trusted without checking the database
+
+    @Value("${app.session-cache.max-active:100000}")
+    private int maxActive;                      // Upper bound on cached active sessions
+
+    /**
+     * Looks up the cached state of a session.
+     *
+     * @param jti the JWT identifier
+     * @return {@link Boolean#TRUE} if known active, {@link Boolean#FALSE} if revoked,
+     * or {@code null} if the database must be consulted
+     */
+    public Boolean lookup(String jti) {
+        long now = System.currentTimeMillis();
+        Long revokedUntil = revokedJtis.get(jti);
+        if (revokedUntil != null && revokedUntil > now) {
+            return Boolean.FALSE;
+        }
+        Long activeUntil = activeJtis.get(jti);
+        if (activeUntil != null && activeUntil > now) {
+            return Boolean.TRUE;
+        }
+        return null;
+    }
+
+    /**
+     * Records a session as active.
+     *
+     * @param jti       the JWT identifier
+     * @param expiresAt expiry of the token that was validated; the entry never outlives it
+     */
+    public void markActive(String jti, Instant expiresAt) {
+        if (activeJtis.size() >= maxActive || revokedJtis.containsKey(jti)) {
+            return;
+        }
+        long until = Math.min(System.currentTimeMillis() + activeTtl * 1000,
+                expiresAt == null ? Long.MAX_VALUE : expiresAt.toEpochMilli());
+        activeJtis.put(jti, until);
+    }
+
+    /**
+     * Records a session as revoked.
+     *
+     * @param jti the JWT identifier
+     * @implNote The JTI is remembered for one access-token lifetime, after which every token
+     * carrying it has expired anyway.
+     */
+    public void markRevoked(String jti) {
+        activeJtis.remove(jti);
+        revokedJtis.put(jti, System.currentTimeMillis() + validDuration * 1000);
+    }
+
+    /**
+     * Removes expired entries from both maps.
+     */
+    @Scheduled(fixedDelayString = "${app.session-cache.cleanup-interval:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedJtis.values().removeIf(until -> until <= now);
+        activeJtis.values().removeIf(until -> until <= now);
+    }
+}
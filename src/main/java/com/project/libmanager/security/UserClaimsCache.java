@@ -0,0 +1,77 @@
+package com.project.libmanager.security;
+
+import com.project.libmanager.util.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of the token claims (scope) issued for each user, keyed by email.
+ * Lets refresh-token rotation issue new tokens without reloading the user and its roles.
+ *
+ * @implNote Entries expire after a short TTL and are evicted explicitly whenever a user's
+ * roles, email or account state change. Evictions are repeated after the surrounding transaction
+ * commits, since a refresh in between would reload and cache the old committed roles.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserClaimsCache {
+    private final TransactionUtil transactionUtil;                             // Repeats evictions after commit
+    private final Map<String, CachedScope> scopes = new ConcurrentHashMap<>(); // Email -> scope claim with expiry
+
+    @Value("${app.user-claims-cache.ttl:600}")
+    private long ttlSeconds;                    // Seconds a cached scope stays valid
+
+    /**
+     * Returns the cached scope of a user.
+     *
+     * @param email the user's email (token subject)
+     * @return the scope claim, or {@code null} if absent or expired
+     */
+    public String getScope(String email) {
+        CachedScope cached = scopes.get(email);
+        if (cached == null || cached.expiresAt() < System.currentTimeMillis()) {
+            return null;
+        }
+        return cached.scope();
+    }
+
+    /**
+     * Caches the scope of a user.
+     *
+     * @param email the user's email (token subject)
+     * @param scope the scope claim issued for the user
+     */
+    public void putScope(String email, String scope) {
+        scopes.put(email, new CachedScope(scope, System.currentTimeMillis() + ttlSeconds * 1000));
+    }
+
+    /**
+     * Evicts the cached claims of a user, now and again once the current transaction commits.
+     *
+     * @param email the user's email (token subject)
+     */
+    public void evict(String email) {
+        if (email != null) {
+            scopes.remove(email);
+            // A refresh that misses before the commit caches the old roles; drop them again afterwards
+            transactionUtil.runAfterCommit(() -> scopes.remove(email));
+        }
+    }
+
+    /**
+     * Removes expired entries.
+     */
+    @Scheduled(fixedDelayString = "${app.user-claims-cache.cleanup-interval:300000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        scopes.values().removeIf(cached -> cached.expiresAt() < now);
+    }
+
+    private record CachedScope(String scope, long expiresAt) {
+    }
+}
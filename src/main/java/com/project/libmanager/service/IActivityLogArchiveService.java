@@ -0,0 +1,9 @@
+package com.project.libmanager.service;
+
+import com.project.libmanager.criteria.ActivityLogCriteria;
+import com.project.libmanager.service.dto.response.ActivityLogPageResponse;
+
+public interface IActivityLogArchiveService {
+    long archiveOldLogs();
+    ActivityLogPageResponse searchArchive(ActivityLogCriteria criteria, String cursor, int limit);
+}
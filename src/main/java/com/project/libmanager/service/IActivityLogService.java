@@ -1,13 +1,21 @@
 package com.project.libmanager.service;
 
 import com.project.libmanager.constant.UserAction;
+import com.project.libmanager.criteria.ActivityLogCriteria;
 import com.project.libmanager.entity.ActivityLog;
+import com.project.libmanager.service.dto.response.ActivityLogPageResponse;
+import com.project.libmanager.service.dto.response.ActivityLogRollupResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Instant;
+import java.util.List;
+
 public interface IActivityLogService {
     void logAction(Long userId, String email, UserAction action, String details, Object beforeChange, Object afterChange);
     Page<ActivityLog> getActivityLogs(Pageable pageable);
     void deleteAllLogs();
     ActivityLog getActivityLog(String id);
+    ActivityLogPageResponse searchActivityLogs(ActivityLogCriteria criteria, String cursor, int limit);
+    List<ActivityLogRollupResponse> getHourlyCounts(Instant from, Instant to, UserAction action);
 }
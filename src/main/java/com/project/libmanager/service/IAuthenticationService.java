@@ -10,4 +10,6 @@ public interface IAuthenticationService {
     AuthenticationResponse refreshToken(String refreshToken, HttpServletResponse response);
 
     void logout(String accessToken, HttpServletResponse response) ;
+
+    int logoutAll(String accessToken, HttpServletResponse response);
 }
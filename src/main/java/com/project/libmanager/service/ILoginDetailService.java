@@ -8,9 +8,15 @@ import java.time.Instant;
 public interface ILoginDetailService {
     void createLoginDetail(LoginDetailRequest loginRequest);
 
+    void createLoginDetail(User user, String jti, Instant expiredAt);
+
     void disableLoginDetailById(String jti);
 
-    void updateLoginDetailIsEnable(String jti, Instant expTime);
+    int updateLoginDetailIsEnable(String jti, Instant expTime);
 
     void deleteLoginDetailByUser(User user);
+
+    int disableAllLoginDetailsByUser(Long userId);
+
+    int purgeExpiredLoginDetails();
 }
@@ -0,0 +1,11 @@
+package com.project.libmanager.service;
+
+import com.project.libmanager.service.dto.response.BookResponse;
+
+import java.util.List;
+
+public interface IRelatedBookService {
+    List<BookResponse> getRelatedBooks(Long bookId);
+
+    void recompute();
+}
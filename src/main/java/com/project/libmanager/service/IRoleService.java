@@ -0,0 +1,7 @@
+package com.project.libmanager.service;
+
+import com.project.libmanager.entity.Role;
+
+public interface IRoleService {
+    Role getRoleByName(String name);
+}
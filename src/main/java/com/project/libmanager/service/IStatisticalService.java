@@ -1,6 +1,7 @@
 package com.project.libmanager.service;
 
 import com.project.libmanager.service.dto.response.BookResponse;
+import com.project.libmanager.service.dto.response.StatisticalSummaryResponse;
 
 import java.util.List;
 import java.util.Map;
@@ -17,4 +18,6 @@ public interface IStatisticalService {
     Map<Integer, Integer> countBorrowForMonthOfYear(int year);
 
     List<BookResponse> getNewBook(int quantity);
+
+    StatisticalSummaryResponse getSummary();
 }
@@ -0,0 +1,11 @@
+package com.project.libmanager.service;
+
+import com.project.libmanager.service.dto.response.TrendingBookResponse;
+
+import java.util.List;
+
+public interface ITrendingBookService {
+    void recordBorrow(Long bookId);
+
+    List<TrendingBookResponse> getTrendingBooks();
+}
@@ -0,0 +1,11 @@
+package com.project.libmanager.service;
+
+public interface IUserExistenceService {
+    boolean emailMayExist(String email);
+
+    boolean phoneMayExist(String phoneNumber);
+
+    void recordUser(String email, String phoneNumber);
+
+    void rebuild();
+}
@@ -0,0 +1,8 @@
+package com.project.libmanager.service;
+
+import com.project.libmanager.criteria.UserCriteria;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+public interface IUserExportService {
+    StreamingResponseBody exportUsers(UserCriteria criteria, String format);
+}
@@ -0,0 +1,8 @@
+package com.project.libmanager.service;
+
+import com.project.libmanager.service.dto.response.UserImportResponse;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface IUserImportService {
+    UserImportResponse importUsers(MultipartFile file);
+}
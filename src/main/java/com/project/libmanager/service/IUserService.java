@@ -29,4 +29,8 @@ public interface IUserService {
     Page<UserResponse> searchUser(UserCriteria criteria, Pageable pageable);
 
     User findByEmail(String email);
+
+    User findByEmailWithRoles(String email);
+
+    void upgradePasswordHash(String email, String encodedPassword);
 }
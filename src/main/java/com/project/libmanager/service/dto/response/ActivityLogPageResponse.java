@@ -0,0 +1,27 @@
+package com.project.libmanager.service.dto.response;
+
+import com.project.libmanager.entity.ActivityLog;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(description = "One page of activity logs with a cursor for the next page")
+public class ActivityLogPageResponse {
+    @Schema(description = "Activity logs on this page")
+    private List<ActivityLog> content;
+
+    @Schema(description = "Cursor to pass for the next page; null on the last page",
+            example = "MTc0MDAwMDAwMDAwMDo2N2JhMWMyZTRmMWEyYjNjNGQ1ZTZmNzA")
+    private String nextCursor;
+
+    @Schema(description = "Whether more logs match the filters", example = "true")
+    private boolean hasMore;
+}
@@ -0,0 +1,26 @@
+package com.project.libmanager.service.dto.response;
+
+import com.project.libmanager.constant.UserAction;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(description = "Number of logged actions of one type in one hour")
+public class ActivityLogRollupResponse {
+    @Schema(description = "Start of the hour (UTC)", example = "2025-03-01T14:00:00Z")
+    private Instant hour;
+
+    @Schema(description = "Logged action", example = "LOGIN")
+    private UserAction action;
+
+    @Schema(description = "Number of logs of this action in the hour", example = "37")
+    private long count;
+}
@@ -0,0 +1,47 @@
+package com.project.libmanager.service.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(description = "Statistics of the asynchronous activity-log writer")
+public class ActivityLogWriterStatsResponse {
+    @Schema(description = "Policy applied when the queue is full", example = "SPILL")
+    private String overflowPolicy;
+
+    @Schema(description = "Log entries waiting to be written", example = "42")
+    private int queueDepth;
+
+    @Schema(description = "Maximum number of queued entries", example = "10000")
+    private int queueCapacity;
+
+    @Schema(description = "Entries written to MongoDB since startup", example = "182734")
+    private long written;
+
+    @Schema(description = "Batches written since startup", example = "6120")
+    private long flushes;
+
+    @Schema(description = "Batches that failed to write", example = "0")
+    private long failedFlushes;
+
+    @Schema(description = "Entries dropped because the queue was full or a write failed", example = "0")
+    private long dropped;
+
+    @Schema(description = "Entries appended to the spill file", example = "0")
+    private long spilled;
+
+    @Schema(description = "Average entries per batch", example = "29.9")
+    private double avgBatchSize;
+
+    @Schema(description = "Average time to write one batch, in milliseconds", example = "3.2")
+    private double avgFlushMillis;
+
+    @Schema(description = "Slowest batch write, in milliseconds", example = "48.7")
+    private double maxFlushMillis;
+}
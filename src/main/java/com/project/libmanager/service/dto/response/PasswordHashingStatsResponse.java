@@ -0,0 +1,44 @@
+package com.project.libmanager.service.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(description = "Statistics of the password hashing pool")
+public class PasswordHashingStatsResponse {
+    @Schema(description = "BCrypt cost factor used for new hashes", example = "10")
+    private int strength;
+
+    @Schema(description = "Number of hashing threads", example = "8")
+    private int poolSize;
+
+    @Schema(description = "Threads currently hashing", example = "3")
+    private int activeThreads;
+
+    @Schema(description = "Hash operations waiting in the queue", example = "12")
+    private int queueDepth;
+
+    @Schema(description = "Maximum queued operations before requests are rejected", example = "64")
+    private int queueCapacity;
+
+    @Schema(description = "Hash operations completed since startup", example = "10421")
+    private long completed;
+
+    @Schema(description = "Hash operations rejected because the pool was saturated", example = "17")
+    private long rejected;
+
+    @Schema(description = "Average time spent hashing, in milliseconds", example = "72.4")
+    private double avgHashMillis;
+
+    @Schema(description = "Slowest single hash, in milliseconds", example = "180.2")
+    private double maxHashMillis;
+
+    @Schema(description = "Average time spent waiting in the queue, in milliseconds", example = "4.1")
+    private double avgQueueWaitMillis;
+}
@@ -0,0 +1,39 @@
+package com.project.libmanager.service.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(description = "Response containing all dashboard statistics in one payload")
+public class StatisticalSummaryResponse {
+    @Schema(description = "Total number of books in stock", example = "250")
+    private long bookActive;
+
+    @Schema(description = "Number of verified users with the user role", example = "120")
+    private long userActive;
+
+    @Schema(description = "Number of borrowings that have not been returned yet", example = "35")
+    private long borrowBookActive;
+
+    @Schema(description = "Total number of borrowings", example = "980")
+    private long allBorrowBook;
+
+    @Schema(description = "Number of borrowings per month (1-12) of the current year")
+    private Map<Integer, Integer> borrowTrend;
+
+    @Schema(description = "Most recently added books")
+    private List<BookResponse> recentBooks;
+
+    @Schema(description = "Time the snapshot was computed", example = "2025-03-01T10:15:30Z")
+    private Instant generatedAt;
+}
@@ -0,0 +1,20 @@
+package com.project.libmanager.service.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(description = "Response containing a trending book and its recent borrow count")
+public class TrendingBookResponse {
+    @Schema(description = "Details of the trending book")
+    private BookResponse book;
+
+    @Schema(description = "Estimated number of borrows within the trending window", example = "42")
+    private long borrowCount;
+}
@@ -0,0 +1,48 @@
+package com.project.libmanager.service.dto.response;
+
+import com.project.libmanager.constant.VerificationStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(description = "One exported user, written as a CSV row or an NDJSON line")
+public class UserExportResponse {
+    @Schema(description = "User ID", example = "42")
+    private Long id;
+
+    @Schema(description = "Email address", example = "student@example.com")
+    private String email;
+
+    @Schema(description = "Phone number", example = "0123456789")
+    private String phoneNumber;
+
+    @Schema(description = "Full name", example = "John Doe")
+    private String fullName;
+
+    @Schema(description = "Birth date", example = "2003-12-14T00:00:00Z")
+    private Instant birthDate;
+
+    @Schema(description = "Verification status", example = "FULLY_VERIFIED")
+    private VerificationStatus verificationStatus;
+
+    @Schema(description = "Whether the user is deleted", example = "false")
+    private boolean deleted;
+
+    @Schema(description = "Number of late returns", example = "0")
+    private int lateReturnCount;
+
+    @Schema(description = "Creation time", example = "2025-09-01T08:00:00Z")
+    private Instant createdAt;
+
+    @Schema(description = "Role names", example = "[\"USER\"]")
+    private List<String> roles;
+}
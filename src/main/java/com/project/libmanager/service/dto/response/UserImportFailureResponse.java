@@ -0,0 +1,26 @@
+package com.project.libmanager.service.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(description = "A CSV row that could not be imported")
+public class UserImportFailureResponse {
+    @Schema(description = "Row number in the file, counting the header as row 1", example = "17")
+    private long row;
+
+    @Schema(description = "Email given in the row", example = "student@example.com")
+    private String email;
+
+    @Schema(description = "Error code explaining the rejection", example = "USER_EXISTED")
+    private String error;
+
+    @Schema(description = "Human-readable reason", example = "User existed")
+    private String message;
+}
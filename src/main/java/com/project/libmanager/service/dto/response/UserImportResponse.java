@@ -0,0 +1,31 @@
+package com.project.libmanager.service.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(description = "Result of a CSV user import")
+public class UserImportResponse {
+    @Schema(description = "Data rows read from the file", example = "420")
+    private int totalRows;
+
+    @Schema(description = "Users created", example = "415")
+    private int imported;
+
+    @Schema(description = "Rows rejected", example = "5")
+    private int failed;
+
+    @Schema(description = "Rejected rows with reasons; capped, so it may list fewer than failed")
+    private List<UserImportFailureResponse> failures;
+
+    @Schema(description = "Time spent on the import, in milliseconds", example = "3120")
+    private long elapsedMillis;
+}
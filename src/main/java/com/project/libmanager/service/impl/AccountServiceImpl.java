@@ -11,14 +11,17 @@ import com.project.libmanager.entity.OtpVerification;
 import com.project.libmanager.entity.Role;
 import com.project.libmanager.entity.User;
 import com.project.libmanager.exception.AppException;
-import com.project.libmanager.repository.RoleRepository;
 import com.project.libmanager.repository.UserRepository;
+import com.project.libmanager.security.AuthenticatedUserResolver;
 import com.project.libmanager.security.JwtTokenProvider;
+import com.project.libmanager.security.UserClaimsCache;
 import com.project.libmanager.service.IAccountService;
 import com.project.libmanager.service.IActivityLogService;
 import com.project.libmanager.service.IMailService;
 import com.project.libmanager.service.ILoginDetailService;
 import com.project.libmanager.service.IOtpVerificationService;
+import com.project.libmanager.service.IRoleService;
+import com.project.libmanager.service.IUserExistenceService;
 import com.project.libmanager.service.dto.request.ChangeMailRequest;
 import com.project.libmanager.service.dto.request.RegisterRequest;
 import com.project.libmanager.service.dto.request.VerifyChangeMailRequest;
@@ -26,13 +29,16 @@ import com.project.libmanager.service.dto.request.VerifyChangePhoneRequest;
 import com.project.libmanager.service.dto.request.ChangePhoneRequest;
 import com.project.libmanager.service.dto.response.UserResponse;
 import com.project.libmanager.service.mapper.UserMapper;
+import com.project.libmanager.util.AsyncMailSender;
 import com.project.libmanager.util.CommonUtil;
+import com.project.libmanager.util.TransactionUtil;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -57,12 +63,17 @@ public class AccountServiceImpl implements IAccountService {
     private final UserMapper userMapper;                   // Maps between User entity and DTOs
     private final IMailService mailService;                // Service for sending emails
     private final PasswordEncoder passwordEncoder;         // Encodes user passwords
-    private final RoleRepository roleRepository;           // Repository for role lookups
+    private final IRoleService roleService;                // Cached role lookups
     private final IOtpVerificationService otpVerificationService; // Manages OTP creation and verification
     private final IActivityLogService activityLogService;  // Logs user actions for auditing
     private final ILoginDetailService loginDetailService;  // Manages login session details
     private final JwtTokenProvider jwtTokenProvider;       // Handles JWT token generation and verification
     private final CommonUtil commonUtil;                   // Utility for common functions (e.g., OTP generation)
+    private final UserClaimsCache userClaimsCache;         // Cached token claims; evicted on email change
+    private final AuthenticatedUserResolver authenticatedUserResolver; // Resolves the current user once per request
+    private final IUserExistenceService userExistenceService; // Bloom-filter pre-checks for email/phone
+    private final AsyncMailSender asyncMailSender;         // Sends verification mail off the request thread
+    private final TransactionUtil transactionUtil;         // Defers mail until commit
 
     /**
      * Registers a new user with provided details, assigns default role, and initiates verification.
@@ -79,6 +90,8 @@ public class AccountServiceImpl implements IAccountService {
      *                      - role not found (ErrorCode.ROLE_NOT_EXISTED)
      *                      - database error occurs (ErrorCode.UNCATEGORIZED_EXCEPTION)
      * @implNote Encodes password, assigns USER_ROLE, saves user, sends OTPs for email/phone verification.
+     * Existence checks only hit the database when the Bloom filters report a possible match; the unique
+     * indexes catch anything they miss. The verification email is sent asynchronously after commit.
      */
     @Override
     @Transactional
@@ -88,26 +101,28 @@ public class AccountServiceImpl implements IAccountService {
         // Encode password; ensures secure storage
         user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
 
-        // Check for duplicate email; enforces uniqueness
-        if (userRepository.existsByEmail(registerRequest.getEmail()))
+        // Check for duplicate email; the filter rules out most new emails without a query
+        if (userExistenceService.emailMayExist(registerRequest.getEmail())
+                && userRepository.existsByEmail(registerRequest.getEmail())) {
             throw new AppException(ErrorCode.USER_EXISTED);
-        // Check for duplicate phone; enforces uniqueness
-        if (userRepository.existsByPhoneNumber(registerRequest.getPhoneNumber())) {
+        }
+        // Check for duplicate phone; same pre-check, unique index remains authoritative
+        if (userExistenceService.phoneMayExist(registerRequest.getPhoneNumber())
+                && userRepository.existsByPhoneNumber(registerRequest.getPhoneNumber())) {
             throw new AppException(ErrorCode.PHONE_EXISTED);
         }
 
-        // Fetch default role; fails if not found
-        Role role = roleRepository.findByName(PredefinedRole.USER_ROLE)
-                .orElseThrow(() -> new AppException(ErrorCode.ROLE_NOT_EXISTED));
+        // Fetch default role; served from memory after the first lookup
         Set<Role> roles = new HashSet<>();
-        roles.add(role);
+        roles.add(roleService.getRoleByName(PredefinedRole.USER_ROLE));
 
         try {
             // Set initial user properties; prepares for persistence
             user.setRoles(roles);
             user.setVerificationStatus(VerificationStatus.UNVERIFIED);
             user.setDeleted(false);
-            user = userRepository.save(user); // Persist user
+            user = userRepository.save(user); // Persist user; unique indexes reject duplicates here
+            userExistenceService.recordUser(user.getEmail(), user.getPhoneNumber());
 
             // Generate and store email OTP; 5-minute expiration
             String otpEmail = commonUtil.generateOTP();
@@ -120,8 +135,9 @@ public class AccountServiceImpl implements IAccountService {
                     .build();
             otpVerificationService.createOtp(otpVerificationEmail, false); // Email-based OTP
 
-            // Send email verification; assumes async delivery
-            mailService.sendEmailVerify(registerRequest.getFullName(), otpEmail, registerRequest.getEmail());
+            // Send email verification after commit on the async executor; keeps SMTP out of the transaction
+            transactionUtil.runAfterCommit(() -> asyncMailSender.sendEmailVerify(
+                    registerRequest.getFullName(), otpEmail, registerRequest.getEmail()));
 
             // Generate and store phone OTP; 5-minute expiration
             String otpPhone = commonUtil.generateOTP();
@@ -146,6 +162,11 @@ public class AccountServiceImpl implements IAccountService {
                     userResponse
             );
             return userResponse;
+        } catch (DataIntegrityViolationException e) {
+            // Duplicate missed by the pre-check (e.g. concurrent registration); tell which column clashed
+            String cause = String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            throw new AppException(cause.contains("'" + registerRequest.getPhoneNumber() + "'")
+                    ? ErrorCode.PHONE_EXISTED : ErrorCode.USER_EXISTED);
         } catch (Exception e) {
             // Log error for debugging; generic exception catch
             log.error("Error when update: {}", e.getMessage());
@@ -176,6 +197,7 @@ public class AccountServiceImpl implements IAccountService {
             user.setVerificationStatus(VerificationStatus.EMAIL_VERIFIED); // Only email verified
         }
         userRepository.save(user); // Persist updated status
+        authenticatedUserResolver.evict(user.getEmail()); // Drop cached snapshot with the old status
         // Log verification action
         activityLogService.logAction(
                 user.getId(),
@@ -211,6 +233,7 @@ public class AccountServiceImpl implements IAccountService {
             user.setVerificationStatus(VerificationStatus.PHONE_VERIFIED); // Only phone verified
         }
         userRepository.save(user); // Persist updated status
+        authenticatedUserResolver.evict(user.getEmail()); // Drop cached snapshot with the old status
         // Log verification action
         activityLogService.logAction(
                 user.getId(),
@@ -265,6 +288,9 @@ public class AccountServiceImpl implements IAccountService {
             // Clear login details; forces re-authentication with new email
             loginDetailService.deleteLoginDetailByUser(user);
             userRepository.save(user); // Persist changes
+            userClaimsCache.evict(changeMailRequest.getOldEmail());
+            authenticatedUserResolver.evict(changeMailRequest.getOldEmail());
+            userExistenceService.recordUser(changeMailRequest.getNewEmail(), null);
 
             // Log email change action
             activityLogService.logAction(
@@ -367,8 +393,8 @@ public class AccountServiceImpl implements IAccountService {
         // Verify OTP; checks validity for new phone
         otpVerificationService.verifyOtp(request.getOtp(), request.getNewPhoneNumber(), OtpType.CHANGE_PHONE, true);
 
-        // Fetch authenticated user; ensures valid session
-        User user = getAuthenticatedUser();
+        // Fetch authenticated user as a managed entity; phone number changes below
+        User user = authenticatedUserResolver.getCurrentUserForUpdate();
 
         // Validate old phone; ensures request matches current phone
         if (!user.getPhoneNumber().equals(request.getOldPhoneNumber())) {
@@ -378,6 +404,7 @@ public class AccountServiceImpl implements IAccountService {
         // Update phone number; applies new value
         user.setPhoneNumber(request.getNewPhoneNumber());
         userRepository.save(user); // Persist changes
+        userExistenceService.recordUser(null, request.getNewPhoneNumber());
 
         // Log phone change action
         activityLogService.logAction(
@@ -404,7 +431,7 @@ public class AccountServiceImpl implements IAccountService {
     @Override
     public void changePhone(ChangePhoneRequest request) {
         // Fetch authenticated user; ensures valid session
-        User user = getAuthenticatedUser();
+        User user = authenticatedUserResolver.getCurrentUser();
         // Validate old phone; ensures request matches current phone
         if (!user.getPhoneNumber().equals(request.getOldPhoneNumber())) {
             throw new AppException(ErrorCode.OLD_PHONE_NOT_EXISTED);
@@ -437,32 +464,6 @@ public class AccountServiceImpl implements IAccountService {
         );
     }
 
-    /**
-     * Retrieves the authenticated user from the security context.
-     *
-     * @return the {@link User} entity of the authenticated user
-     * @throws AppException if:
-     *                      - authentication missing (ErrorCode.UNAUTHORIZED)
-     *                      - user not found (ErrorCode.USER_NOT_EXISTED)
-     * @implNote Uses JWT principal (email) to fetch user; assumes email uniqueness.
-     */
-    private User getAuthenticatedUser() {
-        // Access security context; assumes JWT-based authentication
-        SecurityContext jwtContext = SecurityContextHolder.getContext();
-        // Validate authentication; fails fast if invalid
-        if (jwtContext == null || jwtContext.getAuthentication() == null ||
-                !jwtContext.getAuthentication().isAuthenticated()) {
-            throw new AppException(ErrorCode.UNAUTHORIZED);
-        }
-        // Log principal for debugging; assumes email as subject
-        log.info("Authentication {}", jwtContext.getAuthentication().getName());
-
-        // Fetch user by email; assumes reliable identifier
-        String email = jwtContext.getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
-    }
-
     /**
      * Retrieves the roles associated with a user from a JWT token.
      *
@@ -0,0 +1,566 @@
+package com.project.libmanager.service.impl;
+
+import com.project.libmanager.constant.ErrorCode;
+import com.project.libmanager.criteria.ActivityLogCriteria;
+import com.project.libmanager.entity.ActivityLog;
+import com.project.libmanager.exception.AppException;
+import com.project.libmanager.repository.ActivityLogRollupRepository;
+import com.project.libmanager.service.IActivityLogArchiveService;
+import com.project.libmanager.service.dto.response.ActivityLogPageResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Implementation of {@link IActivityLogArchiveService} moving old activity logs from MongoDB into
+ * compressed files on local disk and searching them.
+ *
+ * @implNote The archive is a directory of append-only segments. A segment is a multi-member gzip file of
+ * NDJSON in MongoDB extended JSON: every block of {@code block-records} logs is one gzip member that can be
+ * decompressed on its own. Its {@code .idx} sidecar is a sparse index with one line per block (byte
+ * offset, length, time range, count), so a search only touches the segments and blocks whose time range
+ * overlaps the query, reading each through a memory-mapped region. Blocks are fsynced before their index
+ * line, and logs leave MongoDB only after both are durable, so a crash can at worst leave an unindexed
+ * tail (truncated on the next run) or an archived block still in MongoDB (removed on the next run).
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ActivityLogArchiveServiceImpl implements IActivityLogArchiveService {
+    private static final String SEGMENT_PREFIX = "activity-logs-";
+    private static final String SEGMENT_SUFFIX = ".ndjson.gz";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final DateTimeFormatter SEGMENT_NAME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS'Z'")
+            .withZone(ZoneOffset.UTC);
+    private static final JsonWriterSettings ARCHIVE_JSON = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED) // Same encoding as the writer's spill file; keeps types exact
+            .build();
+
+    private final MongoTemplate mongoTemplate;                   // Reads and removes archived logs
+    private final ActivityLogRollupRepository rollupRepository;  // Keeps hourly counts of removed logs
+
+    @Value("${app.activity-log.archive.enabled:false}")
+    private boolean enabled;                    // Whether the scheduled job runs
+
+    @Value("${app.activity-log.archive.after-days:30}")
+    private int afterDays;                      // Age after which logs move to the archive
+
+    @Value("${app.activity-log.archive.dir:./data/activity-log-archive}")
+    private String archiveDir;                  // Directory of the segment files
+
+    @Value("${app.activity-log.archive.block-records:1000}")
+    private int blockRecords;                   // Logs per gzip member and index entry
+
+    @Value("${app.activity-log.archive.segment-max-bytes:67108864}")
+    private long segmentMaxBytes;               // Size after which a new segment is started
+
+    @Value("${app.activity-log.archive.max-records-per-run:1000000}")
+    private long maxRecordsPerRun;              // Bounds the work of one run
+
+    @Value("${app.activity-log.query.max-limit:100}")
+    private int maxLimit;                       // Largest result a search may request
+
+    /**
+     * Archives old logs on {@code app.activity-log.archive.cron} when archiving is enabled.
+     */
+    @Scheduled(cron = "${app.activity-log.archive.cron:0 50 2 * * *}")
+    public void runArchiveJob() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveOldLogs();
+        } catch (Exception e) {
+            log.error("Activity log archive failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Moves logs older than {@code app.activity-log.archive.after-days} from MongoDB to the archive.
+     *
+     * @return the number of logs archived and removed from MongoDB
+     * @throws AppException if the archive cannot be written (ErrorCode.ARCHIVE_WRITE_FAILED)
+     * @implNote Reads the oldest logs one block at a time in {@code (timestamp, _id)} order, appends the
+     * block, then removes exactly those logs and adds them to the hourly rollups, as retention would.
+     * The run stops as soon as a block is not fully removed, and does not start while the previous run's
+     * last block is still in MongoDB, so no log is archived twice.
+     */
+    @Override
+    public synchronized long archiveOldLogs() {
+        long start = System.currentTimeMillis();
+        Instant cutoff = Instant.now().minus(Duration.ofDays(afterDays)).truncatedTo(ChronoUnit.HOURS);
+        String collection = mongoTemplate.getCollectionName(ActivityLog.class);
+        long archived = 0;
+        try {
+            Path dir = Paths.get(archiveDir);
+            Files.createDirectories(dir);
+            Segment segment = openLatestSegment(dir);
+            // Finish removals of a run that stopped between deleting logs and counting them
+            rollupRepository.recoverPending(collection);
+
+            // The last block may have been written by a run that stopped before removing it
+            if (segment != null && !segment.blocks().isEmpty()) {
+                List<Document> lastBlock = new ArrayList<>();
+                try (FileChannel channel = FileChannel.open(segment.data(), StandardOpenOption.READ)) {
+                    scanBlock(channel, segment.blocks().get(segment.blocks().size() - 1), lastBlock::add);
+                }
+                removeArchived(collection, lastBlock);
+                List<Object> ids = lastBlock.stream().map(document -> document.get("_id")).toList();
+                if (mongoTemplate.exists(new Query(Criteria.where("_id").in(ids)), collection)) {
+                    // Continuing would copy these logs into a second block
+                    log.error("Logs of the last archived block are still in MongoDB; stopping");
+                    return 0;
+                }
+            }
+
+            Query oldest = new Query(Criteria.where("timestamp").lt(Date.from(cutoff)))
+                    .with(Sort.by(Sort.Order.asc("timestamp"), Sort.Order.asc("_id")))
+                    .limit(blockRecords);
+            while (archived < maxRecordsPerRun) {
+                List<Document> block = mongoTemplate.find(oldest, Document.class, collection);
+                if (block.isEmpty()) {
+                    break;
+                }
+                if (segment == null || Files.size(segment.data()) >= segmentMaxBytes) {
+                    segment = createSegment(dir);
+                }
+                segment.blocks().add(appendBlock(segment, block));
+                long removed = removeArchived(collection, block);
+                archived += removed;
+                if (removed < block.size()) {
+                    // Logs left behind would be archived again by the next query; the next run retries them
+                    log.error("Only {} of {} archived activity logs were removed from MongoDB; stopping",
+                            removed, block.size());
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not write activity log archive: {}", e.getMessage());
+            throw new AppException(ErrorCode.ARCHIVE_WRITE_FAILED);
+        }
+        log.info("Archived {} activity logs older than {} in {} ms", archived, cutoff, System.currentTimeMillis() - start);
+        return archived;
+    }
+
+    /**
+     * Searches archived logs by user, email, action and time range, one page at a time.
+     *
+     * @param criteria the {@link ActivityLogCriteria} filters; null fields are ignored
+     * @param cursor   the {@code nextCursor} of the previous page, or null for the first page
+     * @param limit    the number of logs per page, capped at {@code app.activity-log.query.max-limit}
+     * @return an {@link ActivityLogPageResponse} with matching logs in archive order (oldest first
+     * except for logs that reached MongoDB late) and the cursor of the next page
+     * @throws AppException if:
+     *                      - the cursor cannot be decoded (ErrorCode.INVALID_CURSOR)
+     *                      - limit is not positive (ErrorCode.VALUE_OUT_OF_RANGE)
+     *                      - from is not before to (ErrorCode.FROMDATE_BEFORE_TODATE)
+     *                      - the archive cannot be read (ErrorCode.ARCHIVE_READ_FAILED)
+     * @implNote Only the index sidecars are read for segments outside the time range; matching blocks are
+     * memory-mapped and decompressed one at a time, and the scan stops once the page is full. The cursor
+     * is the position of the last log returned (segment name, block offset, record ordinal); archived
+     * blocks never change, so the next page resumes right after it by skipping earlier segments and
+     * blocks through the index, without re-reading them. One extra log is read to tell whether another
+     * page exists.
+     */
+    @Override
+    public ActivityLogPageResponse searchArchive(ActivityLogCriteria criteria, String cursor, int limit) {
+        if (limit <= 0) {
+            throw new AppException(ErrorCode.VALUE_OUT_OF_RANGE);
+        }
+        ActivityLogCriteria filters = criteria != null ? criteria : new ActivityLogCriteria();
+        if (filters.getFrom() != null && filters.getTo() != null && !filters.getFrom().isBefore(filters.getTo())) {
+            throw new AppException(ErrorCode.FROMDATE_BEFORE_TODATE);
+        }
+        ArchivePosition after = cursor != null && !cursor.isBlank() ? ArchivePosition.decode(cursor) : null;
+        int pageSize = Math.min(limit, maxLimit);
+        long fromMillis = filters.getFrom() != null ? filters.getFrom().toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = filters.getTo() != null ? filters.getTo().toEpochMilli() : Long.MAX_VALUE; // Exclusive
+
+        List<ActivityLog> results = new ArrayList<>(pageSize + 1);
+        ArchivePosition[] last = new ArchivePosition[1]; // Position of the last log kept on the page
+        try {
+            for (Path data : listSegments(Paths.get(archiveDir))) {
+                String segmentName = data.getFileName().toString();
+                if (after != null && segmentName.compareTo(after.segment()) < 0) {
+                    continue; // Before the cursor; index not even read
+                }
+                boolean cursorSegment = after != null && segmentName.equals(after.segment());
+                List<BlockEntry> overlapping = readIndex(indexOf(data), Files.size(data)).stream()
+                        .filter(block -> !cursorSegment || block.offset() >= after.blockOffset())
+                        .filter(block -> block.maxMillis() >= fromMillis && block.minMillis() < toMillis)
+                        .toList();
+                if (overlapping.isEmpty()) {
+                    continue; // Segment outside the range; data file never opened
+                }
+                try (FileChannel channel = FileChannel.open(data, StandardOpenOption.READ)) {
+                    for (BlockEntry block : overlapping) {
+                        boolean cursorBlock = cursorSegment && block.offset() == after.blockOffset();
+                        int[] ordinal = {-1};
+                        boolean more = scanBlock(channel, block, document -> {
+                            ordinal[0]++;
+                            if (cursorBlock && ordinal[0] <= after.ordinal()) {
+                                return true; // Returned on an earlier page
+                            }
+                            if (matches(document, filters, fromMillis, toMillis)) {
+                                if (results.size() == pageSize) {
+                                    results.add(null); // Marks that another page exists
+                                    return false;
+                                }
+                                results.add(mongoTemplate.getConverter().read(ActivityLog.class, document));
+                                last[0] = new ArchivePosition(segmentName, block.offset(), ordinal[0]);
+                            }
+                            return true;
+                        });
+                        if (!more) {
+                            results.remove(pageSize);
+                            return ActivityLogPageResponse.builder()
+                                    .content(results)
+                                    .nextCursor(last[0].encode())
+                                    .hasMore(true)
+                                    .build();
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not read activity log archive: {}", e.getMessage());
+            throw new AppException(ErrorCode.ARCHIVE_READ_FAILED);
+        }
+        return ActivityLogPageResponse.builder()
+                .content(results)
+                .hasMore(false)
+                .build();
+    }
+
+    /**
+     * Removes archived logs from MongoDB and adds them to the hourly rollups.
+     *
+     * @param collection the activity log collection
+     * @param block      the archived documents
+     * @return the number of logs removed
+     * @implNote Each (hour, action) group goes through {@link ActivityLogRollupRepository#removeAndRollUp},
+     * so a crash between the delete and the count is finished by the next run.
+     */
+    private long removeArchived(String collection, List<Document> block) {
+        // Group IDs by hour and action so each rollup gets exactly what was removed
+        Map<String, List<Object>> idsByBucket = new LinkedHashMap<>();
+        Map<String, Instant> hours = new LinkedHashMap<>();
+        Map<String, String> actions = new LinkedHashMap<>();
+        for (Document document : block) {
+            Instant hour = document.getDate("timestamp").toInstant().truncatedTo(ChronoUnit.HOURS);
+            String action = document.getString("action");
+            String bucket = hour + "|" + action;
+            idsByBucket.computeIfAbsent(bucket, key -> new ArrayList<>()).add(document.get("_id"));
+            hours.putIfAbsent(bucket, hour);
+            actions.putIfAbsent(bucket, action);
+        }
+        long removed = 0;
+        for (Map.Entry<String, List<Object>> entry : idsByBucket.entrySet()) {
+            removed += rollupRepository.removeAndRollUp(
+                    hours.get(entry.getKey()), actions.get(entry.getKey()), entry.getValue(), collection);
+        }
+        return removed;
+    }
+
+    /**
+     * Compresses a block into one gzip member and appends it, then its index line.
+     *
+     * @param segment the segment to append to
+     * @param block   the documents, in timestamp order
+     * @return the index entry of the block
+     * @throws IOException if a write fails
+     */
+    private BlockEntry appendBlock(Segment segment, List<Document> block) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        long minMillis = Long.MAX_VALUE;
+        long maxMillis = Long.MIN_VALUE;
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(buffer), StandardCharsets.UTF_8)) {
+            for (Document document : block) {
+                long millis = document.getDate("timestamp").getTime();
+                minMillis = Math.min(minMillis, millis);
+                maxMillis = Math.max(maxMillis, millis);
+                writer.write(document.toJson(ARCHIVE_JSON));
+                writer.write('\n');
+            }
+        }
+        byte[] member = buffer.toByteArray();
+        long offset = appendDurably(segment.data(), member);
+        BlockEntry entry = new BlockEntry(offset, member.length, minMillis, maxMillis, block.size());
+        appendDurably(segment.index(), (entry.format() + "\n").getBytes(StandardCharsets.UTF_8));
+        return entry;
+    }
+
+    /**
+     * Decompresses one block through a memory-mapped region and feeds its documents to a visitor.
+     *
+     * @param channel the open segment file
+     * @param block   the index entry of the block
+     * @param visitor receives each document; returns false to stop
+     * @return false if the visitor stopped the scan
+     * @throws IOException if the block cannot be read
+     */
+    private static boolean scanBlock(FileChannel channel, BlockEntry block, Predicate<Document> visitor) throws IOException {
+        ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, block.offset(), block.length());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteBufferInputStream(region)), StandardCharsets.UTF_8))) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                if (!line.isBlank() && !visitor.test(Document.parse(line))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Opens the newest segment for appending, dropping anything written after its last complete index line.
+     *
+     * @param dir the archive directory
+     * @return the segment, or null if there is none or it cannot be appended to
+     * @throws IOException if the files cannot be read or truncated
+     */
+    private Segment openLatestSegment(Path dir) throws IOException {
+        List<Path> segments = listSegments(dir);
+        if (segments.isEmpty()) {
+            return null;
+        }
+        Path data = segments.get(segments.size() - 1);
+        Path index = indexOf(data);
+
+        // A torn index line belongs to a block whose logs are still in MongoDB
+        if (Files.exists(index)) {
+            byte[] bytes = Files.readAllBytes(index);
+            int end = bytes.length;
+            while (end > 0 && bytes[end - 1] != '\n') {
+                end--;
+            }
+            if (end < bytes.length) {
+                truncate(index, end);
+            }
+        }
+        List<BlockEntry> blocks = new ArrayList<>(readIndex(index, Long.MAX_VALUE));
+        long indexedEnd = blocks.isEmpty() ? 0 : blocks.get(blocks.size() - 1).end();
+        long size = Files.size(data);
+        if (size < indexedEnd) {
+            log.error("Archive segment {} is shorter than its index; starting a new segment", data.getFileName());
+            return null;
+        }
+        if (size > indexedEnd) {
+            truncate(data, indexedEnd); // Unindexed block from an interrupted run
+        }
+        return new Segment(data, index, blocks);
+    }
+
+    private Segment createSegment(Path dir) throws IOException {
+        Instant created = Instant.now();
+        Path data = dir.resolve(SEGMENT_PREFIX + SEGMENT_NAME.format(created) + SEGMENT_SUFFIX);
+        while (Files.exists(data)) {
+            created = created.plusMillis(1); // Keep names unique and in creation order
+            data = dir.resolve(SEGMENT_PREFIX + SEGMENT_NAME.format(created) + SEGMENT_SUFFIX);
+        }
+        Files.createFile(data);
+        Path index = indexOf(data);
+        Files.deleteIfExists(index);
+        Files.createFile(index);
+        return new Segment(data, index, new ArrayList<>());
+    }
+
+    private static List<Path> listSegments(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            // Names embed the creation time, so name order is creation order
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Reads the complete entries of an index sidecar.
+     *
+     * @param index    the sidecar
+     * @param dataSize size of the segment file; entries beyond it are ignored
+     * @return the block entries in file order
+     * @throws IOException if the sidecar cannot be read
+     */
+    private static List<BlockEntry> readIndex(Path index, long dataSize) throws IOException {
+        if (!Files.exists(index)) {
+            return List.of();
+        }
+        List<BlockEntry> blocks = new ArrayList<>();
+        for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+            BlockEntry entry = BlockEntry.parse(line);
+            if (entry != null && entry.end() <= dataSize) {
+                blocks.add(entry);
+            }
+        }
+        return blocks;
+    }
+
+    private static Path indexOf(Path data) {
+        String name = data.getFileName().toString();
+        return data.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    private static long appendDurably(Path file, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long offset = channel.size();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(true);
+            return offset;
+        }
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            channel.force(true);
+        }
+    }
+
+    private static boolean matches(Document document, ActivityLogCriteria criteria, long fromMillis, long toMillis) {
+        Date timestamp = document.getDate("timestamp");
+        if (timestamp == null || timestamp.getTime() < fromMillis || timestamp.getTime() >= toMillis) {
+            return false;
+        }
+        if (criteria.getUserId() != null) {
+            Object userId = document.get("userId");
+            if (!(userId instanceof Number number) || number.longValue() != criteria.getUserId()) {
+                return false;
+            }
+        }
+        if (criteria.getEmail() != null && !criteria.getEmail().isBlank()
+                && !criteria.getEmail().trim().equals(document.getString("email"))) {
+            return false;
+        }
+        return criteria.getAction() == null || criteria.getAction().name().equals(document.getString("action"));
+    }
+
+    private record Segment(Path data, Path index, List<BlockEntry> blocks) {
+    }
+
+    /**
+     * Position of one archived log, carried between search pages as an opaque cursor.
+     */
+    private record ArchivePosition(String segment, long blockOffset, int ordinal) {
+        String encode() {
+            // "segment:offset:ordinal"; segment names contain no colon
+            String key = segment + ":" + blockOffset + ":" + ordinal;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static ArchivePosition decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8)
+                        .split(":");
+                if (parts.length != 3 || !parts[0].startsWith(SEGMENT_PREFIX) || !parts[0].endsWith(SEGMENT_SUFFIX)) {
+                    throw new AppException(ErrorCode.INVALID_CURSOR);
+                }
+                return new ArchivePosition(parts[0], Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+            } catch (IllegalArgumentException e) {
+                // Bad base64 or number
+                throw new AppException(ErrorCode.INVALID_CURSOR);
+            }
+        }
+    }
+
+    /**
+     * One line of the sparse index: a gzip member and the time range of its logs.
+     */
+    private record BlockEntry(long offset, long length, long minMillis, long maxMillis, int count) {
+        long end() {
+            return offset + length;
+        }
+
+        String format() {
+            return offset + "\t" + length + "\t" + minMillis + "\t" + maxMillis + "\t" + count;
+        }
+
+        static BlockEntry parse(String line) {
+            String[] parts = line.split("\t");
+            if (parts.length != 5) {
+                return null;
+            }
+            try {
+                return new BlockEntry(Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                        Long.parseLong(parts[2]), Long.parseLong(parts[3]), Integer.parseInt(parts[4]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Reads a (memory-mapped) buffer as a stream without copying it to the heap first.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
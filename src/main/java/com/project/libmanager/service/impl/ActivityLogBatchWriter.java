@@ -0,0 +1,323 @@
+package com.project.libmanager.service.impl;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.InsertManyOptions;
+import com.project.libmanager.constant.LogOverflowPolicy;
+import com.project.libmanager.entity.ActivityLog;
+import com.project.libmanager.service.dto.response.ActivityLogWriterStatsResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes activity logs to MongoDB asynchronously, in batches.
+ * Request threads only enqueue; a single daemon thread drains the bounded queue and writes each batch
+ * with one {@code insertMany}, flushing when the batch is full or the flush interval has passed since
+ * its first entry.
+ *
+ * @implNote When the queue is full the configured {@link LogOverflowPolicy} applies. With
+ * {@code SPILL}, entries (and batches that fail to write) are appended to a local NDJSON file in
+ * MongoDB extended JSON, which is replayed into the collection on the next start. On shutdown the
+ * queue is drained before the context closes.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ActivityLogBatchWriter {
+    private static final String SPILL_FILE = "activity-log-spill.ndjson";
+    private static final String REPLAY_FILE = "activity-log-spill.replaying";
+    private static final int DUPLICATE_KEY = 11000;
+    private static final JsonWriterSettings SPILL_JSON = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED) // Keeps longs and dates typed on replay
+            .build();
+
+    private final MongoTemplate mongoTemplate;                   // Batched inserts
+
+    @Value("${app.activity-log.writer.queue-capacity:10000}")
+    private int queueCapacity;                                   // Entries buffered in memory
+
+    @Value("${app.activity-log.writer.batch-size:500}")
+    private int batchSize;                                       // Entries per insertMany
+
+    @Value("${app.activity-log.writer.flush-interval-ms:1000}")
+    private long flushIntervalMillis;                            // Longest an entry waits for a batch to fill
+
+    @Value("${app.activity-log.writer.overflow-policy:SPILL}")
+    private LogOverflowPolicy overflowPolicy;                    // Behaviour when the queue is full
+
+    @Value("${app.activity-log.writer.block-timeout-ms:50}")
+    private long blockTimeoutMillis;                             // Longest a caller waits under BLOCK
+
+    @Value("${app.activity-log.writer.spill-dir:./data/activity-log-spill}")
+    private String spillDir;                                     // Directory of the spill file
+
+    @Value("${app.activity-log.writer.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMillis;                          // Longest shutdown waits for the drain
+
+    private final LongAdder written = new LongAdder();           // Entries inserted
+    private final LongAdder flushes = new LongAdder();           // Batches inserted
+    private final LongAdder failedFlushes = new LongAdder();     // Batches that failed
+    private final LongAdder dropped = new LongAdder();           // Entries lost
+    private final LongAdder spilled = new LongAdder();           // Entries written to the spill file
+    private final LongAdder flushNanos = new LongAdder();        // Total insert time
+    private final AtomicLong maxFlushNanos = new AtomicLong();   // Slowest insert
+
+    private BlockingQueue<ActivityLog> queue;                    // Pending entries
+    private Thread writerThread;                                 // Drains the queue
+    private volatile boolean running;                            // Cleared on shutdown
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writerThread = new Thread(this::run, "activity-log-writer");
+        writerThread.setDaemon(true); // Never block JVM exit; shutdown drains explicitly
+        writerThread.start();
+    }
+
+    /**
+     * Queues a log entry for writing.
+     *
+     * @param activityLog the entry to write
+     * @implNote Never throws and never waits longer than the BLOCK timeout, so audit logging can
+     * no longer slow down or fail the caller's request. The entry gets its ID here, before any insert
+     * attempt: a partially applied batch that is then spilled keeps the same IDs, so replay skips the
+     * entries that did make it in instead of inserting them twice.
+     */
+    public void enqueue(ActivityLog activityLog) {
+        if (activityLog.getId() == null) {
+            activityLog.setId(new ObjectId().toHexString());
+        }
+        if (!running) {
+            // Context is closing; write on the caller thread rather than lose the entry
+            write(List.of(activityLog));
+            return;
+        }
+        if (queue.offer(activityLog)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    if (queue.offer(activityLog, blockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                drop(1);
+            }
+            case SPILL -> spill(List.of(activityLog));
+            default -> drop(1);
+        }
+    }
+
+    /**
+     * Returns a snapshot of queue and flush statistics.
+     *
+     * @return an {@link ActivityLogWriterStatsResponse} describing the writer
+     */
+    public ActivityLogWriterStatsResponse getStats() {
+        long batches = flushes.sum();
+        return ActivityLogWriterStatsResponse.builder()
+                .overflowPolicy(overflowPolicy.name())
+                .queueDepth(queue.size())
+                .queueCapacity(queueCapacity)
+                .written(written.sum())
+                .flushes(batches)
+                .failedFlushes(failedFlushes.sum())
+                .dropped(dropped.sum())
+                .spilled(spilled.sum())
+                .avgBatchSize(batches == 0 ? 0 : written.sum() / (double) batches)
+                .avgFlushMillis(batches == 0 ? 0 : flushNanos.sum() / (double) batches / 1_000_000)
+                .maxFlushMillis(maxFlushNanos.get() / 1_000_000.0)
+                .build();
+    }
+
+    /**
+     * Stops accepting queued work and drains what is left.
+     *
+     * @implNote Waits for the writer thread up to {@code shutdown-timeout-ms}, then writes anything
+     * still queued on the closing thread.
+     */
+    @PreDestroy
+    void shutdown() {
+        // No interrupt: it could abort an insert midway; the writer notices within one flush interval
+        running = false;
+        try {
+            writerThread.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<ActivityLog> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            write(rest);
+        }
+        log.info("Activity log writer stopped: {} written, {} spilled, {} dropped",
+                written.sum(), spilled.sum(), dropped.sum());
+    }
+
+    private void run() {
+        replaySpill();
+        List<ActivityLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ActivityLog first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Fill the batch until it is full or the oldest entry has waited long enough
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    ActivityLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Nothing interrupts the writer on purpose; flush what we have and carry on
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    private void write(List<ActivityLog> batch) {
+        long start = System.nanoTime();
+        try {
+            mongoTemplate.insert(batch, ActivityLog.class);
+            long elapsed = System.nanoTime() - start;
+            flushNanos.add(elapsed);
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+            flushes.increment();
+            written.add(batch.size());
+        } catch (Exception e) {
+            failedFlushes.increment();
+            log.error("Could not write {} activity logs: {}", batch.size(), e.getMessage());
+            if (overflowPolicy == LogOverflowPolicy.SPILL) {
+                spill(batch);
+            } else {
+                drop(batch.size());
+            }
+        }
+    }
+
+    private synchronized void spill(List<ActivityLog> entries) {
+        try {
+            Path dir = Paths.get(spillDir);
+            Files.createDirectories(dir);
+            try (BufferedWriter writer = Files.newBufferedWriter(dir.resolve(SPILL_FILE), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (ActivityLog entry : entries) {
+                    // Same document the repository would store, including the type hint
+                    Document document = new Document();
+                    mongoTemplate.getConverter().write(entry, document);
+                    // ID fixed at enqueue makes a retried replay idempotent
+                    document.putIfAbsent("_id", new ObjectId());
+                    writer.write(document.toJson(SPILL_JSON));
+                    writer.newLine();
+                }
+            }
+            spilled.add(entries.size());
+        } catch (Exception e) {
+            log.error("Could not spill {} activity logs: {}", entries.size(), e.getMessage());
+            drop(entries.size());
+        }
+    }
+
+    private void replaySpill() {
+        Path dir = Paths.get(spillDir);
+        Path spillFile = dir.resolve(SPILL_FILE);
+        Path replayFile = dir.resolve(REPLAY_FILE);
+        try {
+            // Move the file aside so new spills during replay start a fresh one; a replay file left
+            // by an earlier failed attempt goes first, the newer spill waits for the next start
+            synchronized (this) {
+                if (!Files.exists(replayFile) && Files.exists(spillFile)) {
+                    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            if (!Files.exists(replayFile)) {
+                return;
+            }
+            String collection = mongoTemplate.getCollectionName(ActivityLog.class);
+            long replayed = 0;
+            try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+                List<Document> documents = new ArrayList<>(batchSize);
+                for (String line; (line = reader.readLine()) != null; ) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    documents.add(Document.parse(line));
+                    if (documents.size() >= batchSize) {
+                        insertIgnoringDuplicates(collection, documents);
+                        replayed += documents.size();
+                        documents = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!documents.isEmpty()) {
+                    insertIgnoringDuplicates(collection, documents);
+                    replayed += documents.size();
+                }
+            }
+            Files.delete(replayFile);
+            log.info("Replayed {} spilled activity logs", replayed);
+        } catch (IOException | RuntimeException e) {
+            // Keep the file; the next start retries and skips entries already inserted
+            log.error("Could not replay spilled activity logs: {}", e.getMessage());
+        }
+    }
+
+    private void insertIgnoringDuplicates(String collection, List<Document> documents) {
+        try {
+            mongoTemplate.getCollection(collection).insertMany(documents, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            // Duplicate keys mean an earlier attempt already inserted those entries
+            boolean onlyDuplicates = e.getWriteErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+            if (!onlyDuplicates) {
+                throw e;
+            }
+        }
+    }
+
+    private void drop(int count) {
+        dropped.add(count);
+        log.warn("Dropped {} activity logs (policy {}, queue {}/{})", count, overflowPolicy, queue.size(), queueCapacity);
+    }
+}
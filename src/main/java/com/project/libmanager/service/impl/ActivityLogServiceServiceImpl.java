@@ -1,18 +1,48 @@
 package com.project.libmanager.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.NullNode;
 import com.project.libmanager.constant.ErrorCode;
 import com.project.libmanager.constant.UserAction;
+import com.project.libmanager.criteria.ActivityLogCriteria;
 import com.project.libmanager.entity.ActivityLog;
+import com.project.libmanager.entity.ActivityLogRollup;
 import com.project.libmanager.exception.AppException;
 import com.project.libmanager.repository.ActivityLogRepository;
+import com.project.libmanager.repository.ActivityLogRollupRepository;
 import com.project.libmanager.service.IActivityLogService;
+import com.project.libmanager.service.dto.response.ActivityLogPageResponse;
+import com.project.libmanager.service.dto.response.ActivityLogRollupResponse;
+import com.project.libmanager.util.JsonPatch;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of {@link IActivityLogService} for managing activity logging operations.
@@ -22,7 +52,32 @@ import java.time.Instant;
 @RequiredArgsConstructor
 @Slf4j
 public class ActivityLogServiceServiceImpl implements IActivityLogService {
+    private static final String HOUR_FORMAT = "%Y-%m-%dT%H"; // $dateToString pattern of an hour bucket (UTC)
+    private static final int REMOVE_BATCH = 5000;            // Logs per removal marker
     private final ActivityLogRepository activityLogRepository; // Repository for persisting and querying activity logs
+    private final ActivityLogRollupRepository rollupRepository;  // Hourly counters of removed logs
+    private final ActivityLogBatchWriter activityLogBatchWriter; // Asynchronous batched inserts
+    private final MongoTemplate mongoTemplate;                   // Filtered cursor queries
+    private final ObjectMapper objectMapper;                     // Converts before/after states to JSON trees
+
+    @Value("${app.activity-log.query.max-limit:100}")
+    private int maxLimit;                                        // Largest page a search may request
+
+    @Value("${app.activity-log.retention.enabled:true}")
+    private boolean retentionEnabled;                            // Whether the retention job runs
+
+    @Value("${app.activity-log.retention.days:90}")
+    private int retentionDays;                                   // Age after which logs are rolled up and removed
+
+    @Value("${app.activity-log.archive.enabled:false}")
+    private boolean archiveEnabled;                              // Old logs leave MongoDB through the archive instead
+
+    private ObjectMapper diffMapper;                             // ISO dates, so patch values stay readable
+
+    @PostConstruct
+    void init() {
+        diffMapper = objectMapper.copy().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
 
     /**
      * Logs a user action with relevant details and optional before/after states.
@@ -33,10 +88,19 @@ public class ActivityLogServiceServiceImpl implements IActivityLogService {
      * @param details      a string describing the action (e.g., "User logged in")
      * @param beforeChange the state before the action (can be null)
      * @param afterChange  the state after the action (can be null)
-     * @implNote Creates and saves an {@link ActivityLog} entity, then logs the saved entity for verification.
+     * @implNote Builds the {@link ActivityLog} and hands it to {@link ActivityLogBatchWriter}, which writes it
+     * in the background; the caller never waits for MongoDB. The log appears in queries after the next flush,
+     * at most {@code app.activity-log.writer.flush-interval-ms} later. The before object is
+     * serialized at flush time, so callers must not modify it after logging. When both states are
+     * present only {@code beforeChange} and a field-level patch ({@link ActivityLog#getChanges()}) are
+     * stored; {@link #getActivityLog(String)} rebuilds the full after state.
      */
     @Override
     public void logAction(Long userId, String email, UserAction action, String details, Object beforeChange, Object afterChange) {
+        // Store a patch instead of a second full copy when both states are known
+        List<ActivityLog.Change> changes = beforeChange != null && afterChange != null
+                ? diff(beforeChange, afterChange) : null;
+
         // Build log entity; captures action details with current timestamp
         ActivityLog logActivity = ActivityLog.builder()
                 .userId(userId)          // Links log to user
@@ -45,13 +109,13 @@ public class ActivityLogServiceServiceImpl implements IActivityLogService {
                 .details(details)        // Describes action context
                 .timestamp(Instant.now()) // Records exact time of action
                 .beforeChange(beforeChange) // Optional: state before action
-                .afterChange(afterChange)   // Optional: state after action
+                .afterChange(changes == null ? afterChange : null) // Full state only when no patch was made
+                .changes(changes)           // Optional: patch from beforeChange to afterChange
                 .build();
 
-        // Persist log; assumes auto-generated ID
-        ActivityLog newLog = activityLogRepository.save(logActivity);
-        // Log saved entity; aids debugging and verification
-        log.info("Check activity log: {}", newLog);
+        // Queue for the batched writer; it assigns the ID on enqueue, before any insert attempt
+        activityLogBatchWriter.enqueue(logActivity);
+        log.debug("Queued activity log: {} {}", action, email);
     }
 
     /**
@@ -70,12 +134,87 @@ public class ActivityLogServiceServiceImpl implements IActivityLogService {
     /**
      * Deletes all activity logs from the system.
      *
-     * @implNote Performs a bulk delete operation on the log repository.
+     * @implNote Logs are folded into the hourly rollups as they are removed, so trend charts keep their
+     * history; removal is one {@code deleteMany} per batch of an hour and action instead of one delete
+     * per document.
      */
     @Override
     public void deleteAllLogs() {
-        // Delete all logs; assumes no additional validation required
-        activityLogRepository.deleteAll();
+        // Everything up to the end of the current hour
+        long removed = rollUpAndRemove(Instant.now().truncatedTo(ChronoUnit.HOURS).plus(1, ChronoUnit.HOURS));
+        log.info("Deleted {} activity logs", removed);
+    }
+
+    /**
+     * Rolls up and removes activity logs older than the retention period.
+     *
+     * @implNote Runs on {@code app.activity-log.retention.cron}. The cutoff is truncated to the hour so
+     * every hour bucket is rolled up in one go. A TTL index is not used because it would delete logs
+     * without updating the rollups. Skipped while {@code app.activity-log.archive.enabled} is set.
+     */
+    @Scheduled(cron = "${app.activity-log.retention.cron:0 20 3 * * *}")
+    public void purgeExpiredLogs() {
+        if (!retentionEnabled) {
+            return;
+        }
+        if (archiveEnabled) {
+            // The archive job removes old logs once they are safely on disk; deleting here would lose them
+            log.debug("Activity log retention deferred to the archive job");
+            return;
+        }
+        try {
+            Instant cutoff = Instant.now().minus(Duration.ofDays(retentionDays)).truncatedTo(ChronoUnit.HOURS);
+            long start = System.currentTimeMillis();
+            long removed = rollUpAndRemove(cutoff);
+            log.info("Activity log retention removed {} logs older than {} in {} ms",
+                    removed, cutoff, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Activity log retention failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns hourly counts of logged actions in a time range, for trend charts.
+     *
+     * @param from   start of the range, inclusive; defaults to 7 days before {@code to}
+     * @param to     end of the range, exclusive; defaults to now
+     * @param action the {@link UserAction} to count, or null for all actions
+     * @return a list of {@link ActivityLogRollupResponse}, ordered by hour then action
+     * @throws AppException if from is not before to (ErrorCode.FROMDATE_BEFORE_TODATE)
+     * @implNote Counts come from the rollups for hours already removed by retention and from the live
+     * logs for the rest. Each log is counted in exactly one of the two, because retention adds to a
+     * rollup only the number of logs it actually deleted.
+     */
+    @Override
+    public List<ActivityLogRollupResponse> getHourlyCounts(Instant from, Instant to, UserAction action) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofDays(7));
+        if (!start.isBefore(end)) {
+            throw new AppException(ErrorCode.FROMDATE_BEFORE_TODATE);
+        }
+        Map<String, ActivityLogRollupResponse> counts = new LinkedHashMap<>();
+
+        // Hours already rolled up; bucket starts inside the range
+        for (ActivityLogRollup rollup : rollupRepository.findByHourRange(start.truncatedTo(ChronoUnit.HOURS), end, action)) {
+            merge(counts, rollup.getHour(), rollup.getAction(), rollup.getCount());
+        }
+
+        // Logs still in the collection
+        Criteria logCriteria = Criteria.where("timestamp").gte(start).lt(end);
+        if (action != null) {
+            logCriteria = logCriteria.and("action").is(action);
+        }
+        for (Document bucket : countByHourAndAction(logCriteria)) {
+            Document key = bucket.get("_id", Document.class);
+            String name = key.getString("action");
+            merge(counts, parseHour(key.getString("hour")), name == null ? null : UserAction.valueOf(name),
+                    ((Number) bucket.get("count")).longValue());
+        }
+
+        return counts.values().stream()
+                .sorted(Comparator.comparing(ActivityLogRollupResponse::getHour)
+                        .thenComparing(r -> r.getAction() == null ? "" : r.getAction().name()))
+                .toList();
     }
 
     /**
@@ -84,12 +223,233 @@ public class ActivityLogServiceServiceImpl implements IActivityLogService {
      * @param id the ID of the activity log to retrieve
      * @return the {@link ActivityLog} entity corresponding to the ID
      * @throws AppException if the log is not found (ErrorCode.ACTIVITY_LOG_NOT_EXISTED)
-     * @implNote Fetches a single log from the repository, throwing an exception if not found.
+     * @implNote Fetches a single log from the repository, throwing an exception if not found. Logs stored
+     * as a patch get their full {@code afterChange} rebuilt from {@code beforeChange}; list and search
+     * results keep the compact form.
      */
     @Override
     public ActivityLog getActivityLog(String id) {
         // Fetch log by ID; uses Optional to handle absence, throws if not found
-        return activityLogRepository.findById(id)
+        ActivityLog activityLog = activityLogRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.ACTIVITY_LOG_NOT_EXISTED));
+        return expand(activityLog);
+    }
+
+    /**
+     * Searches activity logs by user, email, action and time range, newest first, one page at a time.
+     *
+     * @param criteria the {@link ActivityLogCriteria} filters; null fields are ignored
+     * @param cursor   the {@code nextCursor} of the previous page, or null for the first page
+     * @param limit    the number of logs per page, capped at {@code app.activity-log.query.max-limit}
+     * @return an {@link ActivityLogPageResponse} with the page and the cursor of the next one
+     * @throws AppException if:
+     *                      - the cursor cannot be decoded (ErrorCode.INVALID_CURSOR)
+     *                      - limit is not positive (ErrorCode.VALUE_OUT_OF_RANGE)
+     *                      - from is not before to (ErrorCode.FROMDATE_BEFORE_TODATE)
+     * @implNote Keyset pagination on {@code (timestamp, _id)}: the cursor holds the sort key of the last
+     * log returned and the next page starts strictly after it, so each page costs the same index range
+     * scan however deep the client pages, unlike {@code skip}. One extra log is fetched to tell whether
+     * another page exists. Logs written between pages never shift or repeat entries.
+     */
+    @Override
+    public ActivityLogPageResponse searchActivityLogs(ActivityLogCriteria criteria, String cursor, int limit) {
+        if (limit <= 0) {
+            throw new AppException(ErrorCode.VALUE_OUT_OF_RANGE);
+        }
+        if (criteria != null && criteria.getFrom() != null && criteria.getTo() != null
+                && !criteria.getFrom().isBefore(criteria.getTo())) {
+            throw new AppException(ErrorCode.FROMDATE_BEFORE_TODATE);
+        }
+        int pageSize = Math.min(limit, maxLimit);
+
+        // Equality filters first, then the time range; matches the compound index prefixes
+        List<Criteria> filters = new ArrayList<>();
+        if (criteria != null) {
+            if (criteria.getUserId() != null) {
+                filters.add(Criteria.where("userId").is(criteria.getUserId()));
+            }
+            if (criteria.getEmail() != null && !criteria.getEmail().isBlank()) {
+                filters.add(Criteria.where("email").is(criteria.getEmail().trim()));
+            }
+            if (criteria.getAction() != null) {
+                filters.add(Criteria.where("action").is(criteria.getAction()));
+            }
+            if (criteria.getFrom() != null || criteria.getTo() != null) {
+                Criteria range = Criteria.where("timestamp");
+                if (criteria.getFrom() != null) {
+                    range = range.gte(criteria.getFrom()); // Inclusive lower bound
+                }
+                if (criteria.getTo() != null) {
+                    range = range.lt(criteria.getTo());    // Exclusive upper bound
+                }
+                filters.add(range);
+            }
+        }
+
+        // Resume strictly after the last log of the previous page
+        if (cursor != null && !cursor.isBlank()) {
+            CursorKey key = decodeCursor(cursor);
+            filters.add(new Criteria().orOperator(
+                    Criteria.where("timestamp").lt(key.timestamp()),
+                    new Criteria().andOperator(
+                            Criteria.where("timestamp").is(key.timestamp()),
+                            Criteria.where("_id").lt(key.id()))));
+        }
+
+        Query query = new Query();
+        if (!filters.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(filters));
+        }
+        query.with(Sort.by(Sort.Order.desc("timestamp"), Sort.Order.desc("_id")))
+                .limit(pageSize + 1); // One extra to detect a next page
+
+        List<ActivityLog> logs = mongoTemplate.find(query, ActivityLog.class);
+        boolean hasMore = logs.size() > pageSize;
+        if (hasMore) {
+            logs = logs.subList(0, pageSize);
+        }
+        String nextCursor = hasMore ? encodeCursor(logs.get(logs.size() - 1)) : null;
+
+        return ActivityLogPageResponse.builder()
+                .content(logs)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private static String encodeCursor(ActivityLog last) {
+        // "epochMillis:objectId", URL-safe so it can be passed back as a query parameter
+        String key = last.getTimestamp().toEpochMilli() + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CursorKey decodeCursor(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = key.indexOf(':');
+            if (separator < 0) {
+                throw new AppException(ErrorCode.INVALID_CURSOR);
+            }
+            Instant timestamp = Instant.ofEpochMilli(Long.parseLong(key.substring(0, separator)));
+            return new CursorKey(timestamp, new ObjectId(key.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            // Bad base64, number or ObjectId
+            throw new AppException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    private record CursorKey(Instant timestamp, ObjectId id) {
+    }
+
+    /**
+     * Folds logs older than the cutoff into the hourly rollups and removes them.
+     *
+     * @param cutoff logs with an earlier timestamp are processed; should fall on an hour boundary
+     * @return the number of logs removed
+     * @implNote Finds the (hour, action) buckets with one aggregation, then removes each bucket in batches
+     * of IDs through {@link ActivityLogRollupRepository#removeAndRollUp}, which marks each batch before
+     * the delete so a run that stops part way is finished, not lost, by the next run. Only IDs that
+     * were actually deleted are counted, so late-arriving logs of the current hour are left for later.
+     */
+    private synchronized long rollUpAndRemove(Instant cutoff) {
+        String collection = mongoTemplate.getCollectionName(ActivityLog.class);
+        // Finish removals of a run that stopped between deleting logs and counting them
+        long removed = rollupRepository.recoverPending(collection);
+        for (Document bucket : countByHourAndAction(Criteria.where("timestamp").lt(cutoff))) {
+            Document key = bucket.get("_id", Document.class);
+            Instant hour = parseHour(key.getString("hour"));
+            String action = key.getString("action");
+
+            // Remove this bucket in batches of IDs; the action + timestamp index serves the filter
+            Query bucketQuery = new Query(Criteria.where("action").is(action)
+                    .and("timestamp").gte(hour).lt(min(hour.plus(1, ChronoUnit.HOURS), cutoff)))
+                    .limit(REMOVE_BATCH);
+            bucketQuery.fields().include("_id");
+            List<Object> ids;
+            do {
+                ids = mongoTemplate.find(bucketQuery, Document.class, collection).stream()
+                        .map(document -> document.get("_id"))
+                        .toList();
+                removed += rollupRepository.removeAndRollUp(hour, action, ids, collection);
+            } while (ids.size() == REMOVE_BATCH);
+        }
+        return removed;
+    }
+
+    private List<Document> countByHourAndAction(Criteria criteria) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.project("action")
+                        .and(DateOperators.DateToString.dateOf("timestamp").toString(HOUR_FORMAT)).as("hour"),
+                Aggregation.group("hour", "action").count().as("count")
+        ).withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+        return mongoTemplate.aggregate(aggregation, ActivityLog.class, Document.class).getMappedResults();
+    }
+
+    private static void merge(Map<String, ActivityLogRollupResponse> counts, Instant hour, UserAction action, long count) {
+        counts.merge(hour + "|" + action,
+                ActivityLogRollupResponse.builder().hour(hour).action(action).count(count).build(),
+                (existing, added) -> {
+                    existing.setCount(existing.getCount() + added.getCount());
+                    return existing;
+                });
+    }
+
+    private static Instant parseHour(String hour) {
+        return Instant.parse(hour + ":00:00Z"); // $dateToString renders UTC
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * Computes the patch from one state to another.
+     *
+     * @param beforeChange the state before the action
+     * @param afterChange  the state after the action
+     * @return the patch, or null if the states cannot be converted to JSON
+     */
+    private List<ActivityLog.Change> diff(Object beforeChange, Object afterChange) {
+        try {
+            List<JsonPatch.Operation> operations = JsonPatch.diff(
+                    diffMapper.valueToTree(beforeChange), diffMapper.valueToTree(afterChange));
+            return operations.stream()
+                    .map(operation -> ActivityLog.Change.builder()
+                            .op(operation.op())
+                            .path(operation.path())
+                            // Plain maps, lists and scalars, which MongoDB stores natively
+                            .value(operation.value() == null ? null : diffMapper.convertValue(operation.value(), Object.class))
+                            .build())
+                    .toList();
+        } catch (IllegalArgumentException e) {
+            log.debug("Could not diff activity log states, storing both: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Rebuilds {@code afterChange} of a log stored as a patch.
+     *
+     * @param activityLog the log as stored
+     * @return the same log with {@code afterChange} set, as a JSON tree
+     */
+    private ActivityLog expand(ActivityLog activityLog) {
+        if (activityLog.getChanges() == null || activityLog.getAfterChange() != null
+                || activityLog.getBeforeChange() == null) {
+            return activityLog;
+        }
+        try {
+            List<JsonPatch.Operation> operations = activityLog.getChanges().stream()
+                    .map(change -> new JsonPatch.Operation(change.getOp(), change.getPath(),
+                            change.getValue() == null ? NullNode.getInstance() : diffMapper.valueToTree(change.getValue())))
+                    .toList();
+            JsonNode before = diffMapper.valueToTree(activityLog.getBeforeChange());
+            activityLog.setAfterChange(JsonPatch.apply(before, operations));
+        } catch (IllegalArgumentException e) {
+            // Leave the compact form; the patch is still returned
+            log.warn("Could not rebuild activity log {}: {}", activityLog.getId(), e.getMessage());
+        }
+        return activityLog;
     }
-}
\ No newline at end of file
+}
@@ -6,19 +6,19 @@ import com.project.libmanager.constant.ErrorCode;
 import com.project.libmanager.constant.PredefinedRole;
 import com.project.libmanager.constant.TokenType;
 import com.project.libmanager.constant.UserAction;
-import com.project.libmanager.entity.Role;
 import com.project.libmanager.entity.User;
 import com.project.libmanager.exception.AppException;
-import com.project.libmanager.repository.RoleRepository;
 import com.project.libmanager.repository.UserRepository;
+import com.project.libmanager.security.CustomUserDetails;
+import com.project.libmanager.security.CustomUserDetailsService;
 import com.project.libmanager.security.JwtTokenProvider;
+import com.project.libmanager.security.UserClaimsCache;
 import com.project.libmanager.service.IActivityLogService;
 import com.project.libmanager.service.IAuthenticationService;
 import com.project.libmanager.service.IMaintenanceService;
 import com.project.libmanager.service.ILoginDetailService;
 import com.project.libmanager.service.IUserService;
 import com.project.libmanager.service.dto.request.AuthenticationRequest;
-import com.project.libmanager.service.dto.request.LoginDetailRequest;
 import com.project.libmanager.service.dto.response.AuthenticationResponse;
 import com.project.libmanager.util.CommonUtil;
 import com.project.libmanager.util.CookieUtil;
@@ -46,7 +46,6 @@ import java.time.temporal.ChronoUnit;
 public class AuthenticationServiceImpl implements IAuthenticationService {
     private final UserRepository userRepository;              // Repository for user data access
     private final IMaintenanceService maintenanceService;     // Service to check maintenance mode
-    private final RoleRepository roleRepository;              // Repository for role lookups
     private final JwtTokenProvider jwtTokenProvider;          // Utility for JWT token generation and verification
     private final AuthenticationManagerBuilder authenticationManagerBuilder; // Builds authentication manager
     private final IUserService userService;                   // Service for user-related operations
@@ -54,6 +53,7 @@ public class AuthenticationServiceImpl implements IAuthenticationService {
     private final CommonUtil commonUtil;                      // Utility for common functions (e.g., JTI generation)
     private final IActivityLogService activityLogService;     // Service for logging user actions
     private final CookieUtil cookieUtil;                      // Utility for cookie management
+    private final UserClaimsCache userClaimsCache;            // Cached token claims for refresh rotation
 
     @Value("${jwt.refresh-duration}")
     private long refreshDuration;                             // Duration (in seconds) for refresh token validity
@@ -76,9 +76,9 @@ public class AuthenticationServiceImpl implements IAuthenticationService {
      *                      - authentication fails (ErrorCode.UNAUTHENTICATED)
      *                      - user not found (ErrorCode.USER_NOT_EXISTED)
      *                      - system in maintenance mode for non-admins (ErrorCode.MAINTENACE_MODE)
-     *                      - role not found (ErrorCode.ROLE_NOT_EXISTED)
      * @implNote Authenticates via Spring Security, generates tokens, stores refresh token details,
-     * sets cookies, and logs the login action.
+     * sets cookies, and logs the login action. The user (with roles) is loaded exactly once by
+     * {@link CustomUserDetailsService} and carried through token issuance and session creation.
      */
     @Override
     public AuthenticationResponse authenticate(AuthenticationRequest aRequest, HttpServletResponse response) {
@@ -90,23 +90,26 @@ public class AuthenticationServiceImpl implements IAuthenticationService {
         // Set authentication in security context; enables downstream access
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        // Fetch user; assumes email uniqueness
-        User userDB = userService.findByEmail(aRequest.getEmail());
+        // Reuse the user loaded (with roles) during authentication; no second lookup
+        User userDB = ((CustomUserDetails) authentication.getPrincipal()).getUser();
 
         // Check maintenance mode; restricts non-admin users
-        Role role = roleRepository.findByName(PredefinedRole.USER_ROLE)
-                .orElseThrow(() -> new AppException(ErrorCode.ROLE_NOT_EXISTED));
-        if (maintenanceService.isMaintenanceMode() && userDB.getRoles().contains(role)) {
+        boolean isUserRole = userDB.getRoles().stream()
+                .anyMatch(role -> PredefinedRole.USER_ROLE.equals(role.getName()));
+        if (maintenanceService.isMaintenanceMode() && isUserRole) {
             throw new AppException(ErrorCode.MAINTENACE_MODE); // Typo: MAINTENANCE_MODE
         }
 
         // Generate unique JTI and tokens; JTI links access and refresh tokens
         String jti = commonUtil.generateJTI();
-        String accessToken = jwtTokenProvider.generateToken(userDB, TokenType.ACCESS, jti);
-        String refreshToken = jwtTokenProvider.generateToken(userDB, TokenType.REFRESH, jti);
+        String scope = jwtTokenProvider.buildScope(userDB);
+        String accessToken = jwtTokenProvider.generateToken(userDB.getEmail(), scope, TokenType.ACCESS, jti);
+        String refreshToken = jwtTokenProvider.generateToken(userDB.getEmail(), scope, TokenType.REFRESH, jti);
+        // Remember claims so refresh can rotate tokens without loading the user
+        userClaimsCache.putScope(userDB.getEmail(), scope);
 
-        // Save refresh token details; tracks session validity
-        saveRefreshToken(refreshToken);
+        // Save session details; expiry matches the refresh token
+        loginDetailService.createLoginDetail(userDB, jti, Instant.now().plus(refreshDuration, ChronoUnit.SECONDS));
 
         // Clear existing cookies; ensures clean state
         cookieUtil.removeCookie(response, ACCESS_TOKEN_STR);
@@ -132,33 +135,6 @@ public class AuthenticationServiceImpl implements IAuthenticationService {
                 .build();
     }
 
-    /**
-     * Saves refresh token details to track session validity.
-     *
-     * @param token the refresh token to save
-     * @throws AppException if token verification or saving fails (ErrorCode.UNAUTHENTICATED)
-     * @implNote Verifies token, extracts claims, and stores login details via LoginDetailService.
-     */
-    private void saveRefreshToken(String token) {
-        try {
-            // Verify token; ensures integrity and authenticity
-            SignedJWT signedJWT = jwtTokenProvider.verifyToken(token);
-            JWTClaimsSet claimsSet = signedJWT.getJWTClaimsSet();
-            // Save login details; includes email, JTI, and expiration
-            loginDetailService.createLoginDetail(LoginDetailRequest
-                    .builder()
-                    .email(claimsSet.getSubject())
-                    .jti(claimsSet.getJWTID())
-                    .enabled(true) // Marks session as active
-                    .expiredAt(claimsSet.getExpirationTime().toInstant())
-                    .build());
-        } catch (Exception e) {
-            // Log error; provides context for debugging
-            log.error("Error saving refresh token: {}", e.getMessage());
-            throw new AppException(ErrorCode.UNAUTHENTICATED);
-        }
-    }
-
     /**
      * Logs out a user by invalidating their tokens and clearing cookies.
      *
@@ -200,6 +176,49 @@ public class AuthenticationServiceImpl implements IAuthenticationService {
         }
     }
 
+    /**
+     * Logs out a user from every device by invalidating all of their sessions and clearing cookies.
+     *
+     * @param accessToken the access token of the current session
+     * @param response    the {@link HttpServletResponse} to clear authentication cookies
+     * @return the number of sessions that were invalidated
+     * @throws AppException if token verification or logout fails (ErrorCode.UNAUTHENTICATED)
+     * @implNote Disables all login details of the user with one bulk update, which also revokes
+     * them in memory, then clears cookies and logs the action.
+     */
+    @Override
+    public int logoutAll(String accessToken, HttpServletResponse response) {
+        try {
+            // Verify access token; ensures it's valid before proceeding
+            SignedJWT signedJWT = jwtTokenProvider.verifyToken(accessToken);
+            JWTClaimsSet claimsSet = signedJWT.getJWTClaimsSet();
+
+            // Fetch user; assumes subject is email
+            User userDB = userService.findByEmail(claimsSet.getSubject());
+            // Disable every session of the user, including the current one
+            int disabled = loginDetailService.disableAllLoginDetailsByUser(userDB.getId());
+
+            // Clear cookies; removes tokens from client
+            cookieUtil.removeCookie(response, ACCESS_TOKEN_STR);
+            cookieUtil.removeCookie(response, REFRESH_TOKEN_STR);
+
+            // Log logout action; audit trail for user activity
+            activityLogService.logAction(
+                    userDB.getId(),
+                    userDB.getEmail(),
+                    UserAction.LOGOUT_ALL_DEVICES,
+                    "User logged out from " + disabled + " session(s)",
+                    null,
+                    null
+            );
+            return disabled;
+        } catch (Exception e) {
+            // Log error with stack trace; aids debugging
+            log.error("Error logout all sessions", e);
+            throw new AppException(ErrorCode.UNAUTHENTICATED);
+        }
+    }
+
     /**
      * Refreshes authentication tokens using a valid refresh token.
      *
@@ -210,8 +229,9 @@ public class AuthenticationServiceImpl implements IAuthenticationService {
      *                      - token is invalid or not a refresh token (ErrorCode.JWT_TOKEN_INVALID)
      *                      - user not found (ErrorCode.USER_NOT_EXISTED)
      *                      - parsing fails (ErrorCode.UNAUTHENTICATED)
-     * @implNote Verifies refresh token, updates session expiration, generates new tokens,
-     * and updates cookies.
+     * @implNote Verifies refresh token, extends the session with a single conditional update,
+     * generates new tokens from cached claims and updates cookies. No SELECT is issued while the
+     * user's claims are cached.
      */
     @Override
     public AuthenticationResponse refreshToken(String refreshToken, HttpServletResponse response) {
@@ -240,16 +260,21 @@ public class AuthenticationServiceImpl implements IAuthenticationService {
         String jwtID = claimsSet.getJWTID();
         String email = claimsSet.getSubject();
 
-        // Fetch user; fails if not found
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        // Rotate session in one conditional update; fails if logged out or expired
+        loginDetailService.updateLoginDetailIsEnable(jwtID, Instant.now().plus(refreshDuration, ChronoUnit.SECONDS));
 
-        // Generate new tokens; keeps same JTI
-        String accessTokenGrt = jwtTokenProvider.generateToken(user, TokenType.ACCESS, jwtID);
-        String refreshTokenGrt = jwtTokenProvider.renewRefreshToken(user, jwtID);
+        // Resolve scope from cache; only load the user on a miss
+        String scope = userClaimsCache.getScope(email);
+        if (scope == null) {
+            User user = userRepository.findWithRolesByEmail(email)
+                    .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+            scope = jwtTokenProvider.buildScope(user);
+            userClaimsCache.putScope(email, scope);
+        }
 
-        // Update session expiration; extends refresh token validity
-        loginDetailService.updateLoginDetailIsEnable(jwtID, Instant.now().plus(refreshDuration, ChronoUnit.SECONDS));
+        // Generate new tokens; keeps same JTI
+        String accessTokenGrt = jwtTokenProvider.generateToken(email, scope, TokenType.ACCESS, jwtID);
+        String refreshTokenGrt = jwtTokenProvider.renewRefreshToken(email, scope, jwtID);
 
         // Update cookies; replaces old tokens
         cookieUtil.removeCookie(response, ACCESS_TOKEN_STR);
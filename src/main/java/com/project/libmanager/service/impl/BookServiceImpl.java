@@ -12,8 +12,10 @@ import com.project.libmanager.repository.BookRepository;
 import com.project.libmanager.repository.BookTypeRepository;
 import com.project.libmanager.repository.BorrowingRepository;
 import com.project.libmanager.repository.UserRepository;
+import com.project.libmanager.security.AuthenticatedUserResolver;
 import com.project.libmanager.service.IActivityLogService;
 import com.project.libmanager.service.IBookService;
+import com.project.libmanager.service.ITrendingBookService;
 import com.project.libmanager.service.dto.request.BookCreateRequest;
 import com.project.libmanager.service.dto.request.BookUpdateRequest;
 import com.project.libmanager.service.dto.response.BookResponse;
@@ -22,6 +24,7 @@ import com.project.libmanager.service.mapper.BookMapper;
 import com.project.libmanager.service.mapper.BookTypeMapper;
 import com.project.libmanager.service.mapper.BorrowingMapper;
 import com.project.libmanager.specification.BookQueryService;
+import com.project.libmanager.util.TransactionUtil;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,8 +34,6 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.context.SecurityContext;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -66,6 +67,9 @@ public class BookServiceImpl implements IBookService {
     private final BorrowingMapper borrowingMapper;       // Converts between Borrowing entities and DTOs
     private final BookQueryService bookQueryService;     // Executes complex book queries with criteria
     private final IActivityLogService activityLogService; // Logs user and admin actions for auditing
+    private final ITrendingBookService trendingBookService; // Feeds borrow events into the trending window
+    private final TransactionUtil transactionUtil;       // Defers side effects until commit
+    private final AuthenticatedUserResolver authenticatedUserResolver; // Resolves the current user once per request
 
     /**
      * Creates a new book or updates an existing book if the ISBN already exists.
@@ -112,7 +116,7 @@ public class BookServiceImpl implements IBookService {
             book = bookRepository.save(book); // Persist new book
 
             // Log admin action; captures creation event
-            User user = getAuthenticatedUser();
+            User user = authenticatedUserResolver.getCurrentUser();
             BookResponse bookResponse = bookMapper.toBookResponse(book);
             activityLogService.logAction(
                     user.getId(),
@@ -173,7 +177,7 @@ public class BookServiceImpl implements IBookService {
             Book newBook = bookRepository.save(oldBook); // Save changes
 
             // Log admin action with before/after states
-            User user = getAuthenticatedUser();
+            User user = authenticatedUserResolver.getCurrentUser();
             BookResponse newBookResponse = bookMapper.toBookResponse(newBook);
             activityLogService.logAction(
                     user.getId(),
@@ -218,7 +222,7 @@ public class BookServiceImpl implements IBookService {
             bookRepository.save(book);
 
             // Log admin action
-            User user = getAuthenticatedUser();
+            User user = authenticatedUserResolver.getCurrentUser();
             activityLogService.logAction(
                     user.getId(),
                     user.getEmail(),
@@ -338,32 +342,6 @@ public class BookServiceImpl implements IBookService {
         return mapToBookResponseByMapper(id);
     }
 
-    /**
-     * Retrieves the authenticated user from the security context.
-     *
-     * @return the {@link User} entity of the authenticated user
-     * @throws AppException if:
-     *                      - authentication is missing (ErrorCode.UNAUTHORIZED)
-     *                      - user not found (ErrorCode.USER_NOT_EXISTED)
-     * @implNote Uses JWT principal (email) to fetch user; assumes email uniqueness.
-     */
-    private User getAuthenticatedUser() {
-        // Access security context; assumes JWT-based authentication
-        SecurityContext jwtContext = SecurityContextHolder.getContext();
-        // Validate authentication; fails fast if invalid
-        if (jwtContext == null || jwtContext.getAuthentication() == null ||
-                !jwtContext.getAuthentication().isAuthenticated()) {
-            throw new AppException(ErrorCode.UNAUTHORIZED);
-        }
-        // Log principal for debugging; assumes email as subject
-        log.info("Authentication {}", jwtContext.getAuthentication().getName());
-
-        // Fetch user by email; assumes reliable identifier
-        String email = jwtContext.getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
-    }
-
     /**
      * Allows an authenticated user to borrow a book.
      *
@@ -383,7 +361,7 @@ public class BookServiceImpl implements IBookService {
     @Override
     public BorrowingResponse borrowBook(Long bookId) {
         // Fetch authenticated user; ensures valid session
-        User user = getAuthenticatedUser();
+        User user = authenticatedUserResolver.getCurrentUser();
         // Check user status; restricts deleted users
         boolean isDeleted = user.isDeleted();
         if (isDeleted) {
@@ -428,6 +406,9 @@ public class BookServiceImpl implements IBookService {
             book.setStock(book.getStock() - 1);
             bookRepository.save(book);
 
+            // Count the borrow towards trending books once it is committed
+            transactionUtil.runAfterCommit(() -> trendingBookService.recordBorrow(bookId));
+
             // Log user action
             activityLogService.logAction(
                     user.getId(),
@@ -458,8 +439,8 @@ public class BookServiceImpl implements IBookService {
     @Transactional
     @Override
     public BorrowingResponse returnBook(Long bookId) {
-        // Fetch authenticated user
-        User user = getAuthenticatedUser();
+        // Fetch authenticated user as a managed entity; late return count may change
+        User user = authenticatedUserResolver.getCurrentUserForUpdate();
 
         // Fetch active borrowing; fails if not found
         Borrowing borrowing = borrowingRepository.findByUserIdAndBookIdAndReturnDateIsNull(user.getId(), bookId)
@@ -532,7 +513,7 @@ public class BookServiceImpl implements IBookService {
     @Override
     public Page<BorrowingResponse> getBookBorrowForUser(Pageable pageable) {
         try {
-            User user = getAuthenticatedUser();
+            User user = authenticatedUserResolver.getCurrentUser();
             Page<Borrowing> borrowingsBook = borrowingRepository.findByUserIdAndReturnDateIsNull(user.getId(), pageable);
             return mapBorrowPageBrorrowResponsePage(borrowingsBook);
         } catch (AppException e) {
@@ -554,7 +535,7 @@ public class BookServiceImpl implements IBookService {
     @Override
     public Page<BorrowingResponse> getBookReturnForUser(Pageable pageable) {
         try {
-            User user = getAuthenticatedUser();
+            User user = authenticatedUserResolver.getCurrentUser();
             Page<Borrowing> bookReturn = borrowingRepository.findByUserIdAndReturnDateIsNotNull(user.getId(), pageable);
             return mapBorrowPageBrorrowResponsePage(bookReturn);
         } catch (AppException e) {
@@ -668,7 +649,7 @@ public class BookServiceImpl implements IBookService {
             bookRepository.saveAll(newBooks);
 
             // Log admin action
-            User user = getAuthenticatedUser();
+            User user = authenticatedUserResolver.getCurrentUser();
             activityLogService.logAction(
                     user.getId(),
                     user.getEmail(),
@@ -0,0 +1,184 @@
+package com.project.libmanager.service.impl;
+
+import com.project.libmanager.constant.ErrorCode;
+import com.project.libmanager.constant.OtpType;
+import com.project.libmanager.entity.OtpVerification;
+import com.project.libmanager.exception.AppException;
+import com.project.libmanager.repository.OtpVerificationRepository;
+import com.project.libmanager.service.IOtpVerificationService;
+import com.project.libmanager.util.ExpiringMap;
+import com.project.libmanager.util.TransactionUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory implementation of {@link IOtpVerificationService}.
+ * Keeps OTPs in an {@link ExpiringMap} keyed by contact info and type, so creating and verifying
+ * an OTP needs no database round trips and expired codes disappear on their own.
+ *
+ * @implNote Active when {@code app.otp.store} is {@code memory} (the default); set it to {@code jpa}
+ * to fall back to {@link OtpVerificationImpl}. OTPs live only in this instance, which matches the
+ * single-instance deployment of the application. Creating an OTP inside a transaction that later
+ * rolls back removes it again, mirroring the rollback of the former table insert.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpVerificationService implements IOtpVerificationService {
+    private final OtpVerificationRepository otpRepository; // Legacy table, only purged
+    private final TransactionUtil transactionUtil;         // Undo creation on rollback
+
+    @Value("${app.otp.max-attempts:5}")
+    private int maxAttempts;                                // Wrong codes allowed before the OTP is burned
+
+    @Value("${app.otp.wheel-slots:512}")
+    private int wheelSlots;                                 // Timing wheel size
+
+    @Value("${app.otp.wheel-tick-ms:1000}")
+    private long wheelTickMs;                               // Timing wheel resolution
+
+    private ExpiringMap<OtpKey, OtpEntry> otps;             // Active OTPs
+
+    @PostConstruct
+    void init() {
+        otps = new ExpiringMap<>(wheelSlots, wheelTickMs);
+    }
+
+    /**
+     * Stores a new OTP for phone or email verification.
+     *
+     * @param otpVerification the {@link OtpVerification} carrying contact info, type, code and expiry
+     * @param isPhone         true if OTP is for phone number, false if for email
+     * @throws AppException if a live OTP already exists for the contact info and type (ErrorCode.OTP_IS_DULICATED)
+     * @implNote Expired OTPs no longer block new ones, unlike stale rows in the legacy table.
+     */
+    @Override
+    public void createOtp(OtpVerification otpVerification, boolean isPhone) {
+        // Determine contact info based on isPhone flag
+        String phoneOrEmail = isPhone ? otpVerification.getPhoneNumber() : otpVerification.getEmail();
+        OtpKey key = OtpKey.of(phoneOrEmail, otpVerification.getType(), isPhone);
+        OtpEntry entry = new OtpEntry(otpVerification.getOtp(), otpVerification.getExpiredAt());
+
+        // Enforce one active OTP per contact and type
+        if (!otps.putIfAbsent(key, entry, otpVerification.getExpiredAt().toEpochMilli())) {
+            throw new AppException(ErrorCode.OTP_IS_DULICATED);
+        }
+        // Drop the OTP if the caller's transaction (e.g. registration) fails
+        transactionUtil.runAfterRollback(() -> otps.remove(key, entry));
+    }
+
+    /**
+     * Deletes an OTP by contact info and type.
+     *
+     * @param contactInfo the phone number or email address associated with the OTP
+     * @param type        the {@link OtpType} of the OTP
+     * @param isPhone     true if contactInfo is a phone number, false if an email
+     * @throws AppException if no OTP exists for the contact info and type (ErrorCode.OTP_NOT_EXISTED)
+     */
+    @Override
+    public void deleteOtp(String contactInfo, OtpType type, boolean isPhone) {
+        if (otps.remove(OtpKey.of(contactInfo, type, isPhone)) == null) {
+            throw new AppException(ErrorCode.OTP_NOT_EXISTED);
+        }
+    }
+
+    /**
+     * Verifies an OTP and consumes it upon success or expiration.
+     *
+     * @param otp         the OTP code provided by the user
+     * @param contactInfo the phone number or email address associated with the OTP
+     * @param type        the {@link OtpType} of the OTP
+     * @param isPhone     true if contactInfo is a phone number, false if an email
+     * @return true if OTP is valid and verified successfully
+     * @throws AppException if:
+     *                      - OTP not found (ErrorCode.OTP_NOT_EXISTED)
+     *                      - OTP code is incorrect (ErrorCode.OTP_INVALID)
+     *                      - too many incorrect codes were tried (ErrorCode.OTP_ATTEMPTS_EXCEEDED)
+     *                      - OTP has expired (ErrorCode.OTP_EXPIRED)
+     * @implNote Same checks and order as the table-backed service, plus an attempt counter: after
+     * {@code app.otp.max-attempts} wrong codes the OTP is discarded and a new one must be requested.
+     */
+    @Override
+    public boolean verifyOtp(String otp, String contactInfo, OtpType type, boolean isPhone) {
+        OtpKey key = OtpKey.of(contactInfo, type, isPhone);
+        // Expired-but-unswept entries are still returned so the caller gets OTP_EXPIRED
+        OtpEntry entry = otps.getIncludingExpired(key);
+        if (entry == null) {
+            log.warn("OTP not found for contact: {}, type: {}", contactInfo, type);
+            throw new AppException(ErrorCode.OTP_NOT_EXISTED);
+        }
+
+        // Compare provided OTP with stored value; count failures per contact and type
+        if (!otp.equals(entry.otp)) {
+            log.warn("OTP not match");
+            if (entry.attempts.incrementAndGet() >= maxAttempts) {
+                otps.remove(key, entry); // Burn the OTP; brute force is no longer possible
+                throw new AppException(ErrorCode.OTP_ATTEMPTS_EXCEEDED);
+            }
+            throw new AppException(ErrorCode.OTP_INVALID);
+        }
+
+        // Consume the OTP; only one concurrent verification can win
+        if (!otps.remove(key, entry)) {
+            throw new AppException(ErrorCode.OTP_NOT_EXISTED);
+        }
+        // Check expiration; expired OTP is already removed
+        if (entry.expiredAt.isBefore(Instant.now())) {
+            log.warn("OTP expired for contact: {}, type: {}", contactInfo, type);
+            throw new AppException(ErrorCode.OTP_EXPIRED);
+        }
+        return true;
+    }
+
+    /**
+     * Advances the timing wheel, dropping OTPs whose expiry has passed.
+     */
+    @Scheduled(fixedDelayString = "${app.otp.wheel-tick-ms:1000}")
+    public void expireOtps() {
+        int removed = otps.advance(System.currentTimeMillis());
+        if (removed > 0) {
+            log.debug("Expired {} in-memory OTPs, {} remaining", removed, otps.size());
+        }
+    }
+
+    /**
+     * Purges expired rows from the legacy otp_verification table.
+     *
+     * @implNote Runs in memory mode too, so rows written before the switch are cleaned up.
+     */
+    @Scheduled(cron = "${app.otp.purge-cron:0 0 * * * *}")
+    public void purgeLegacyOtps() {
+        int deleted = otpRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired rows from otp_verification", deleted);
+        }
+    }
+
+    private record OtpKey(String contact, OtpType type, boolean phone) {
+        static OtpKey of(String contact, OtpType type, boolean phone) {
+            // Emails compare case-insensitively, as they did under the table's collation
+            return new OtpKey(phone ? contact : contact.toLowerCase(Locale.ROOT), type, phone);
+        }
+    }
+
+    private static final class OtpEntry {
+        private final String otp;                                   // Expected code
+        private final Instant expiredAt;                            // Expiry time
+        private final AtomicInteger attempts = new AtomicInteger(); // Wrong codes tried
+
+        private OtpEntry(String otp, Instant expiredAt) {
+            this.otp = otp;
+            this.expiredAt = expiredAt;
+        }
+    }
+}
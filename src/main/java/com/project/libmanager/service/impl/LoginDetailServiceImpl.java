@@ -6,28 +6,40 @@ import com.project.libmanager.entity.User;
 import com.project.libmanager.exception.AppException;
 import com.project.libmanager.repository.LoginDetailRepository;
 import com.project.libmanager.repository.UserRepository;
+import com.project.libmanager.security.SessionRevocationCache;
 import com.project.libmanager.service.ILoginDetailService;
 import com.project.libmanager.service.dto.request.LoginDetailRequest;
 import com.project.libmanager.service.dto.response.LoginDetailResponse;
 import com.project.libmanager.service.mapper.LoginDetailMapper;
 import jakarta.transaction.Transactional;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.function.IntSupplier;
 
 /**
  * Implementation of {@link ILoginDetailService} for managing login detail operations.
  * Handles creation, updates, and deletion of login details associated with user sessions.
  */
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Slf4j
 public class LoginDetailServiceImpl implements ILoginDetailService {
     private final LoginDetailRepository loginDetailRepository; // Repository for login detail persistence
     private final LoginDetailMapper loginDetailMapper;         // Mapper for DTO-entity conversions
     private final UserRepository userRepository;               // Repository for user data access
+    private final SessionRevocationCache sessionRevocationCache; // Token decoder's view of revoked sessions
+
+    @Value("${app.login-detail.reaper.batch-size:1000}")
+    private int reaperBatchSize;                // Rows deleted per statement; keeps each lock short
+
+    @Value("${app.login-detail.reaper.disabled-grace:86400}")
+    private long disabledGraceSeconds;          // Seconds a disabled session is kept before being purged
 
     /**
      * Creates a new login detail entry for a user session.
@@ -62,6 +74,26 @@ public class LoginDetailServiceImpl implements ILoginDetailService {
         loginDetailRepository.save(loginDetail);
     }
 
+    /**
+     * Creates a new login detail entry for an already loaded user.
+     *
+     * @param user      the authenticated {@link User} owning the session
+     * @param jti       freshly generated JWT identifier of the session
+     * @param expiredAt expiration time of the session's refresh token
+     * @implNote Used by the login pipeline, which already holds the user; issues a single insert.
+     * JTI uniqueness is guaranteed by UUID generation and enforced by the unique index.
+     */
+    @Override
+    @Transactional
+    public void createLoginDetail(User user, String jti, Instant expiredAt) {
+        loginDetailRepository.save(LoginDetail.builder()
+                .user(user)
+                .jti(jti)
+                .enabled(true) // Marks session as active
+                .expiredAt(expiredAt)
+                .build());
+    }
+
     /**
      * Disables a login detail by setting its enabled status to false.
      *
@@ -79,6 +111,8 @@ public class LoginDetailServiceImpl implements ILoginDetailService {
         loginDetail.setEnabled(false);
         // Persist change; transactional ensures atomicity
         loginDetailRepository.save(loginDetail);
+        // Reject the session's tokens immediately, without waiting for the cache TTL
+        sessionRevocationCache.markRevoked(jti);
     }
 
     /**
@@ -86,19 +120,20 @@ public class LoginDetailServiceImpl implements ILoginDetailService {
      *
      * @param jti     the JWT identifier of the login detail
      * @param expTime the new expiration time to set
-     * @throws AppException if enabled login detail not found (ErrorCode.LOGINDETAIL_NOTFOUND)
-     * @implNote Updates expiration time transactionally; only applies to enabled sessions.
+     * @return the number of rows updated (always 1 on success)
+     * @throws AppException if no enabled, unexpired login detail exists (ErrorCode.LOGINDETAIL_NOTFOUND)
+     * @implNote Runs a single conditional UPDATE on {@code jti}, so checking and extending the
+     * session is one round trip and cannot race with a concurrent logout.
      */
     @Override
     @Transactional
-    public void updateLoginDetailIsEnable(String jti, Instant expTime) {
-        // Fetch enabled login detail by JTI; ensures only active sessions are updated
-        LoginDetail loginDetail = loginDetailRepository.findByJtiAndEnabled(jti)
-                .orElseThrow(() -> new AppException(ErrorCode.LOGINDETAIL_NOTFOUND));
-        // Update expiration time; assumes expTime is valid
-        loginDetail.setExpiredAt(expTime);
-        // Save changes; transactional ensures consistency
-        loginDetailRepository.save(loginDetail);
+    public int updateLoginDetailIsEnable(String jti, Instant expTime) {
+        // Extend only sessions that are still enabled and not yet expired
+        int updated = loginDetailRepository.extendActiveSession(jti, expTime, Instant.now());
+        if (updated == 0) {
+            throw new AppException(ErrorCode.LOGINDETAIL_NOTFOUND);
+        }
+        return updated;
     }
 
     /**
@@ -106,17 +141,88 @@ public class LoginDetailServiceImpl implements ILoginDetailService {
      *
      * @param user the {@link User} whose login details should be deleted
      * @throws AppException if deletion fails (ErrorCode.UNCATEGORIZED_EXCEPTION)
-     * @implNote Performs bulk deletion transactionally; logs errors for debugging.
+     * @implNote Performs one bulk delete transactionally and revokes the deleted sessions in
+     * {@link SessionRevocationCache}; logs errors for debugging.
      */
     @Override
     @Transactional
     public void deleteLoginDetailByUser(User user) {
         try {
-            // Delete all login details for user; assumes efficient repository query
-            loginDetailRepository.deleteByUser(user);
+            // Remember the sessions being removed so their tokens can be revoked in memory
+            List<String> jtis = loginDetailRepository.findJtisByUserId(user.getId());
+            // Delete all login details for user in a single statement
+            loginDetailRepository.deleteAllByUserId(user.getId());
+            jtis.forEach(sessionRevocationCache::markRevoked);
         } catch (Exception e) {
             log.error("Error when deleting login detail: {}", e.getMessage());
             throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Disables every active login session of a user.
+     *
+     * @param userId the ID of the user whose sessions should be disabled
+     * @return the number of sessions disabled
+     * @throws AppException if the update fails (ErrorCode.UNCATEGORIZED_EXCEPTION)
+     * @implNote Uses one bulk UPDATE regardless of the number of sessions and revokes the same
+     * sessions in {@link SessionRevocationCache} in the same step.
+     */
+    @Override
+    @Transactional
+    public int disableAllLoginDetailsByUser(Long userId) {
+        try {
+            // Collect active JTIs first; the bulk update does not return them
+            List<String> jtis = loginDetailRepository.findEnabledJtisByUserId(userId);
+            if (jtis.isEmpty()) {
+                return 0;
+            }
+            int disabled = loginDetailRepository.disableAllByUserId(userId, Instant.now());
+            jtis.forEach(sessionRevocationCache::markRevoked);
+            return disabled;
+        } catch (Exception e) {
+            log.error("Error when disabling login details: {}", e.getMessage());
+            throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
+        }
+    }
+
+    /**
+     * Deletes login details that have expired or have been disabled for longer than the grace period.
+     *
+     * @return the total number of rows removed in this run
+     * @implNote Runs on a schedule and deletes in bounded chunks, each in its own short transaction,
+     * until a chunk comes back smaller than the batch size. Deleted sessions need no cache update:
+     * expired ones cannot be used anyway and disabled ones are already revoked.
+     */
+    @Override
+    @Scheduled(cron = "${app.login-detail.reaper.cron:0 15 * * * *}")
+    public int purgeExpiredLoginDetails() {
+        Instant now = Instant.now();
+        Instant disabledBefore = now.minusSeconds(disabledGraceSeconds);
+        try {
+            int expired = deleteInChunks(() -> loginDetailRepository.deleteExpiredBatch(now, reaperBatchSize));
+            int disabled = deleteInChunks(() -> loginDetailRepository.deleteDisabledBatch(disabledBefore, reaperBatchSize));
+            log.info("Login detail reaper removed {} expired and {} disabled rows", expired, disabled);
+            return expired + disabled;
+        } catch (Exception e) {
+            log.error("Error when purging login details: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Repeats a chunked delete until the table has no more matching rows.
+     *
+     * @param chunk deletes one chunk and returns the number of rows removed
+     * @return the total number of rows removed
+     */
+    private int deleteInChunks(IntSupplier chunk) {
+        int total = 0;
+        int removed;
+        do {
+            removed = chunk.getAsInt();
+            total += removed;
+        } while (removed >= reaperBatchSize);
+        return total;
+    }
+}
@@ -5,14 +5,13 @@ import com.project.libmanager.constant.UserAction;
 import com.project.libmanager.entity.User;
 import com.project.libmanager.exception.AppException;
 import com.project.libmanager.repository.UserRepository;
+import com.project.libmanager.security.AuthenticatedUserResolver;
 import com.project.libmanager.service.IActivityLogService;
 import com.project.libmanager.service.IMaintenanceService;
 import com.project.libmanager.util.AsyncMailSender;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.context.SecurityContext;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -28,6 +27,7 @@ public class MaintenanceServiceImpl implements IMaintenanceService {
     private final UserRepository userRepository;        // Handles user data retrieval
     private final AsyncMailSender asyncMailSender;      // Sends maintenance emails asynchronously
     private final IActivityLogService activityLogService; // Logs admin actions for audit trail
+    private final AuthenticatedUserResolver authenticatedUserResolver; // Resolves the current user once per request
     @Value("${app.maintenance-mode:false}")
     private boolean maintenanceMode;
 
@@ -67,7 +67,7 @@ public class MaintenanceServiceImpl implements IMaintenanceService {
                 .toList();
 
         // Fetch authenticated admin; ensures only authorized users can toggle mode
-        User user = getAuthenticatedUser();
+        User user = authenticatedUserResolver.getCurrentUser();
         // Log action for audit; no state change tracked as it's a system-level action
         activityLogService.logAction(
                 user.getId(),
@@ -80,31 +80,4 @@ public class MaintenanceServiceImpl implements IMaintenanceService {
         // Send emails asynchronously; assumes AsyncMailSender handles failures gracefully
         asyncMailSender.sendMaintenanceEmails(emails, maintenanceMode);
     }
-
-    /**
-     * Retrieves the currently authenticated user from the security context.
-     *
-     * @return a {@link User} entity representing the authenticated admin
-     * @throws AppException if:
-     *                      - security context is invalid or missing (ErrorCode.UNAUTHORIZED)
-     *                      - user not found by email (ErrorCode.USER_NOT_EXISTED)
-     * @implNote Extracts email from JWT principal and fetches the corresponding user.
-     */
-    private User getAuthenticatedUser() {
-        // Access security context; assumes JWT-based authentication
-        SecurityContext jwtContext = SecurityContextHolder.getContext();
-        // Validate context and authentication; fails fast if invalid
-        if (jwtContext == null || jwtContext.getAuthentication() == null ||
-                !jwtContext.getAuthentication().isAuthenticated()) {
-            throw new AppException(ErrorCode.UNAUTHORIZED); // No authenticated user
-        }
-        // Log principal for debugging; assumes email is the JWT subject
-        log.info("Authentication {}", jwtContext.getAuthentication().getName());
-
-        // Extract email from authentication; assumes unique in system
-        String email = jwtContext.getAuthentication().getName();
-        // Fetch user; assumes email is a reliable identifier
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED)); // Fail if user missing
-    }
 }
\ No newline at end of file
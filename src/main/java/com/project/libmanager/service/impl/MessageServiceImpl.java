@@ -11,13 +11,13 @@ import com.project.libmanager.repository.MessageRepository;
 import com.project.libmanager.repository.TopicRepository;
 import com.project.libmanager.repository.TopicSubscriptionRepository;
 import com.project.libmanager.repository.UserRepository;
+import com.project.libmanager.security.AuthenticatedUserResolver;
 import com.project.libmanager.service.IMessageService;
 import com.project.libmanager.service.dto.request.PrivateMessageRequest;
 import com.project.libmanager.service.dto.response.PrivateMessageResponse;
 import com.project.libmanager.service.dto.response.TopicResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -40,6 +40,7 @@ public class MessageServiceImpl implements IMessageService {
     private final TopicRepository topicRepository;  // Repository for topic data
     private final TopicSubscriptionRepository subscriptionRepository;  // Repository for topic subscriptions
     private final WebSocketChatHandler chatHandler;  // WebSocket handler for real-time messaging
+    private final AuthenticatedUserResolver authenticatedUserResolver; // Resolves the current user once per request
 
     private static final String ROLE_ADMIN = "ADMIN";  // Role identifier for admin users
 
@@ -193,11 +194,11 @@ public class MessageServiceImpl implements IMessageService {
     @Override
     public Map<Long, List<PrivateMessageResponse>> getMessAdminWithAllUser() {
         // Get authenticated admin; ensures admin is logged in
-        User admin = getAuthenticatedUser();
+        User admin = authenticatedUserResolver.getCurrentUser();
         Long adminId = admin.getId();
 
-        // Fetch all users; includes both admin and non-admin
-        List<User> allUsers = userRepository.findAll();
+        // Fetch all users with roles in one query; includes both admin and non-admin
+        List<User> allUsers = userRepository.findAllWithRolesBy();
         // Filter non-admin users; excludes users with ADMIN role
         List<User> normalUsers = allUsers.stream()
                 .filter(user -> user.getRoles().stream()
@@ -227,7 +228,7 @@ public class MessageServiceImpl implements IMessageService {
     @Override
     public void subscribeToTopic(String topic) {
         // Get authenticated user; ensures user is logged in
-        User user = getAuthenticatedUser();
+        User user = authenticatedUserResolver.getCurrentUser();
 
         // Validate topic; ensures it is not empty
         if (topic == null || topic.trim().isEmpty()) {
@@ -274,7 +275,7 @@ public class MessageServiceImpl implements IMessageService {
     @Override
     public void unsubscribeFromTopic(String topic) {
         // Get authenticated user; ensures user is logged in
-        User user = getAuthenticatedUser();
+        User user = authenticatedUserResolver.getCurrentUser();
 
         // Validate topic; ensures it is not empty
         if (topic == null || topic.trim().isEmpty()) {
@@ -340,7 +341,7 @@ public class MessageServiceImpl implements IMessageService {
     @Override
     public List<PrivateMessageResponse> getMessagesInTopic(String topic) {
         // Get authenticated user; ensures user is logged in
-        User user = getAuthenticatedUser();
+        User user = authenticatedUserResolver.getCurrentUser();
 
         // Validate topic; ensures it is not empty
         if (topic == null || topic.trim().isEmpty()) {
@@ -428,7 +429,7 @@ public class MessageServiceImpl implements IMessageService {
         }
 
         // Validate admin privileges; ensures only admins can remove users
-        User admin = getAuthenticatedUser();
+        User admin = authenticatedUserResolver.getCurrentUser();
         if (admin.getRoles().stream().noneMatch(role -> role.getName().equals(ROLE_ADMIN))) {
             throw new AppException(ErrorCode.UNAUTHORIZED);
         }
@@ -469,21 +470,6 @@ public class MessageServiceImpl implements IMessageService {
                 .toList();
     }
 
-    /**
-     * Retrieves the authenticated user from the security context.
-     *
-     * @return the authenticated {@link User}
-     * @throws AppException if the user cannot be found (ErrorCode.USER_NOT_EXISTED)
-     * @implNote Extracts the email from the security context and fetches the user.
-     */
-    private User getAuthenticatedUser() {
-        // Extract email from security context; identifies the logged-in user
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        // Fetch user by email; ensures user exists
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
-    }
-
     /**
      * Converts a message entity to a response DTO.
      *
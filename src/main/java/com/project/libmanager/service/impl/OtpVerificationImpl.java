@@ -9,6 +9,8 @@ import com.project.libmanager.service.IOtpVerificationService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -16,10 +18,12 @@ import java.time.Instant;
 /**
  * Implementation of {@link IOtpVerificationService} for managing OTP (One-Time Password) operations.
  * Provides creation, deletion, and verification of OTPs for phone or email verification.
+ * Table-backed fallback, active when {@code app.otp.store} is {@code jpa}; see {@link InMemoryOtpVerificationService}.
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "jpa")
 public class OtpVerificationImpl implements IOtpVerificationService {
 
     private final OtpVerificationRepository otpRepository; // Repository for OTP persistence and queries
@@ -123,4 +127,17 @@ public class OtpVerificationImpl implements IOtpVerificationService {
         // Return success; indicates verification completed
         return true;
     }
-}
\ No newline at end of file
+
+    /**
+     * Purges expired OTP rows that were never verified.
+     *
+     * @implNote Single bulk delete; without it, unverified OTPs stay forever and block new ones.
+     */
+    @Scheduled(cron = "${app.otp.purge-cron:0 0 * * * *}")
+    public void purgeExpiredOtps() {
+        int deleted = otpRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired rows from otp_verification", deleted);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.project.libmanager.service.impl;
+
+import com.project.libmanager.entity.Book;
+import com.project.libmanager.repository.BookRepository;
+import com.project.libmanager.repository.BorrowingRepository;
+import com.project.libmanager.service.IRelatedBookService;
+import com.project.libmanager.service.dto.response.BookResponse;
+import com.project.libmanager.service.mapper.BookMapper;
+import com.project.libmanager.util.LongIntHashMap;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RelatedBookServiceImpl implements IRelatedBookService {
+    private static final int MIN_BASKETS_PER_TASK = 2048;         // Smallest fork/join leaf (user baskets)
+    private static final int TASKS_PER_WORKER = 2;                // Leaves per pool thread; each extra level costs a merge
+
+    private final BorrowingRepository borrowingRepository;       // Streams (user, book) borrow pairs
+    private final BookRepository bookRepository;                 // Loads details of related books
+    private final BookMapper bookMapper;                         // Converts Book entities to DTOs
+    private final TransactionTemplate transactionTemplate;       // Keeps the borrow stream inside a transaction
+
+    // bookId -> neighbour book IDs ordered by co-occurrence; replaced atomically after each recompute
+    private final AtomicReference<Map<Long, long[]>> neighbours = new AtomicReference<>(Map.of());
+    private final AtomicBoolean recomputing = new AtomicBoolean();  // Guards against overlapping recomputes
+
+    @Value("${app.related.top-k:10}")
+    private int topK;                            // Neighbours kept per book
+
+    @Value("${app.related.max-basket-size:200}")
+    private int maxBasketSize;                   // Most recent distinct books considered per user
+
+    private ExecutorService loaderExecutor;      // Single thread for the blocking borrow-history load
+    private ForkJoinPool countingPool;           // Private pool for the CPU-bound pair counting
+
+    /**
+     * Creates the loader thread and the counting pool.
+     *
+     * @implNote Neither is the common pool: the load blocks on JDBC for the whole history, and counting
+     * can keep every core busy, so sharing the common pool would stall parallel streams and
+     * {@code CompletableFuture} defaults elsewhere in the JVM.
+     */
+    @PostConstruct
+    void initExecutors() {
+        loaderExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r, "related-books-loader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        countingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Stops the loader and the counting pool on shutdown.
+     */
+    @PreDestroy
+    void shutdownExecutors() {
+        loaderExecutor.shutdownNow();
+        countingPool.shutdownNow();
+    }
+
+    /**
+     * Retrieves books frequently borrowed together with the given book.
+     *
+     * @param bookId the ID of the reference book
+     * @return a {@link List} of {@link BookResponse}, strongest co-occurrence first; empty if none is known
+     * @implNote Neighbour IDs come from memory; book details are loaded with one query and deleted books are skipped.
+     */
+    @Override
+    public List<BookResponse> getRelatedBooks(Long bookId) {
+        long[] related = neighbours.get().get(bookId);
+        if (related == null || related.length == 0) {
+            return List.of();
+        }
+        List<Long> ids = Arrays.stream(related).boxed().toList();
+        Map<Long, Book> books = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        // Keep co-occurrence order; findAllById does not preserve it
+        List<BookResponse> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Book book = books.get(id);
+            if (book != null && !book.isDeleted()) {
+                result.add(bookMapper.toBookResponse(book));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rebuilds the item-item co-occurrence table from the full borrowing history.
+     *
+     * @implNote Only schedules the rebuild on the dedicated loader thread and returns; a rebuild already
+     * queued or running makes this a no-op. Borrowings are streamed grouped by user into baskets of
+     * distinct books, then pair counts are accumulated on a private fork/join pool into primitive-keyed
+     * maps and reduced to the top-k neighbours per book. The new table replaces the old one atomically,
+     * so reads never block.
+     */
+    @Override
+    @Scheduled(cron = "${app.related.recompute-cron:0 30 3 * * *}")
+    public void recompute() {
+        if (!recomputing.compareAndSet(false, true)) {
+            log.info("Related books recompute already running; skipping");
+            return;
+        }
+        try {
+            loaderExecutor.execute(this::rebuild);
+        } catch (RuntimeException e) {
+            recomputing.set(false); // Rejected during shutdown
+            log.warn("Could not schedule related books recompute: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Builds the first table once the application is ready.
+     *
+     * @implNote Runs on the loader thread so startup is not delayed by a large history.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recomputeOnStartup() {
+        recompute();
+    }
+
+    private void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            // Blocking JDBC stream; stays on the loader thread
+            List<long[]> baskets = transactionTemplate.execute(status -> loadBaskets());
+            if (baskets == null || baskets.isEmpty()) {
+                neighbours.set(Map.of());
+                return;
+            }
+
+            Map<Long, long[]> topNeighbours = buildNeighbours(countingPool, baskets, topK);
+            neighbours.set(Map.copyOf(topNeighbours));
+            log.info("Related books recomputed: {} baskets, {} books in {} ms",
+                    baskets.size(), topNeighbours.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Could not recompute related books: {}", e.getMessage());
+        } finally {
+            recomputing.set(false);
+        }
+    }
+
+    /**
+     * Streams the borrow history and groups it into per-user baskets.
+     *
+     * @return one sorted array of distinct book IDs per user with at least two books
+     * @implNote Must run inside a transaction because the result is a database cursor.
+     */
+    private List<long[]> loadBaskets() {
+        try (Stream<Object[]> rows = borrowingRepository.streamUserBookPairs()) {
+            return groupBaskets(rows, maxBasketSize);
+        }
+    }
+
+    /**
+     * Groups (user, book) rows into per-user baskets.
+     *
+     * @param rows          {@code [userId, bookId]} rows ordered by user, newest borrowing first
+     * @param maxBasketSize most recent books kept per user
+     * @return one sorted array of distinct book IDs per user with at least two books
+     */
+    static List<long[]> groupBaskets(Stream<Object[]> rows, int maxBasketSize) {
+        List<long[]> baskets = new ArrayList<>();
+        long[] buffer = new long[maxBasketSize];
+        int[] state = {0};                       // Number of book IDs buffered for the current user
+        long[] currentUser = {0};
+        rows.forEach(row -> {
+            long userId = ((Number) row[0]).longValue();
+            long bookId = ((Number) row[1]).longValue();
+            if (userId != currentUser[0]) {
+                addBasket(baskets, buffer, state[0]);
+                currentUser[0] = userId;
+                state[0] = 0;
+            }
+            // Rows arrive newest first per user; extra books beyond the cap are ignored
+            if (state[0] < buffer.length) {
+                buffer[state[0]++] = bookId;
+            }
+        });
+        addBasket(baskets, buffer, state[0]);
+        return baskets;
+    }
+
+    /**
+     * Counts book pairs over all baskets and keeps the strongest neighbours of each book.
+     *
+     * @param pool     fork/join pool running the counting
+     * @param baskets  per-user baskets of distinct book IDs
+     * @param topK     neighbours kept per book
+     * @return bookId -> neighbour book IDs ordered by co-occurrence
+     */
+    static Map<Long, long[]> buildNeighbours(ForkJoinPool pool, List<long[]> baskets, int topK) {
+        // Few large leaves: merging partial matrices costs more than counting, so split only to keep workers busy
+        int leafSize = Math.max(MIN_BASKETS_PER_TASK,
+                baskets.size() / (pool.getParallelism() * TASKS_PER_WORKER) + 1);
+        Map<Long, LongIntHashMap> matrix = pool.invoke(new CoOccurrenceTask(baskets, 0, baskets.size(), leafSize));
+        // Keep the strongest neighbours of each book
+        return pool.submit(() -> matrix.entrySet().parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().topKeys(topK)))).join();
+    }
+
+    private static void addBasket(List<long[]> baskets, long[] buffer, int length) {
+        if (length < 2) {
+            return;
+        }
+        long[] basket = Arrays.stream(buffer, 0, length).sorted().distinct().toArray();
+        if (basket.length > 1) {
+            baskets.add(basket);
+        }
+    }
+
+    /**
+     * Counts book pairs for a range of baskets, splitting the range across the fork/join pool.
+     */
+    private static final class CoOccurrenceTask extends RecursiveTask<Map<Long, LongIntHashMap>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<long[]> baskets;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        CoOccurrenceTask(List<long[]> baskets, int from, int to, int leafSize) {
+            this.baskets = baskets;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected Map<Long, LongIntHashMap> compute() {
+            if (to - from <= leafSize) {
+                return countRange();
+            }
+            int mid = (from + to) >>> 1;
+            CoOccurrenceTask left = new CoOccurrenceTask(baskets, from, mid, leafSize);
+            left.fork();
+            Map<Long, LongIntHashMap> right = new CoOccurrenceTask(baskets, mid, to, leafSize).compute();
+            Map<Long, LongIntHashMap> merged = left.join();
+            // Fold the right half into the left one
+            right.forEach((bookId, counts) -> merged.merge(bookId, counts, (a, b) -> {
+                a.addAll(b);
+                return a;
+            }));
+            return merged;
+        }
+
+        private Map<Long, LongIntHashMap> countRange() {
+            Map<Long, LongIntHashMap> counts = new HashMap<>();
+            for (int i = from; i < to; i++) {
+                long[] basket = baskets.get(i);
+                for (int a = 0; a < basket.length; a++) {
+                    LongIntHashMap row = counts.computeIfAbsent(basket[a], k -> new LongIntHashMap(16));
+                    for (int b = 0; b < basket.length; b++) {
+                        if (a != b) {
+                            row.addTo(basket[b], 1);
+                        }
+                    }
+                }
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.project.libmanager.service.impl;
+
+import com.project.libmanager.constant.ErrorCode;
+import com.project.libmanager.entity.Role;
+import com.project.libmanager.exception.AppException;
+import com.project.libmanager.repository.RoleRepository;
+import com.project.libmanager.service.IRoleService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of {@link IRoleService} serving role lookups from memory.
+ * Roles are seeded reference data that never change at runtime, so each name is loaded once.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RoleServiceImpl implements IRoleService {
+    private final RoleRepository roleRepository;                        // Loads roles on first use
+    private final Map<String, Role> rolesByName = new ConcurrentHashMap<>(); // Role name -> role
+
+    /**
+     * Retrieves a role by name.
+     *
+     * @param name the role name (e.g. {@code USER})
+     * @return the {@link Role}
+     * @throws AppException if no role has that name (ErrorCode.ROLE_NOT_EXISTED)
+     * @implNote The returned role is detached; it is only used as a reference when assigning roles,
+     * which writes the join table by ID. Missing roles are not cached.
+     */
+    @Override
+    public Role getRoleByName(String name) {
+        Role role = rolesByName.get(name);
+        if (role != null) {
+            return role;
+        }
+        // Load once; concurrent first calls may both query, which is harmless
+        role = roleRepository.findByName(name)
+                .orElseThrow(() -> new AppException(ErrorCode.ROLE_NOT_EXISTED));
+        rolesByName.put(name, role);
+        return role;
+    }
+}
@@ -7,14 +7,32 @@ import com.project.libmanager.repository.BorrowingRepository;
 import com.project.libmanager.repository.UserRepository;
 import com.project.libmanager.service.IStatisticalService;
 import com.project.libmanager.service.dto.response.BookResponse;
+import com.project.libmanager.service.dto.response.StatisticalSummaryResponse;
 import com.project.libmanager.service.mapper.BookMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.Year;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +43,23 @@ public class StatisticalServiceImpl implements IStatisticalService {
     private final BorrowingRepository borrowingRepository;      // Repository for borrow data persistence
     private final BookMapper bookMapper;                        // Mapper for entity-DTO conversion
 
+    // Last computed dashboard snapshot; replaced atomically by the background refresh
+    private final AtomicReference<StatisticalSummaryResponse> summarySnapshot = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();    // Single-flight guard for refreshes
+    private final Object initialLoadLock = new Object();            // Serializes the first, inline computation
+
+    @Value("${app.statistical.summary.ttl:60}")
+    private long summaryTtlSeconds;                             // Max age (seconds) before a read triggers a background refresh
+
+    @Value("${app.statistical.summary.pool-size:4}")
+    private int summaryPoolSize;                                // Number of threads running the aggregates concurrently
+
+    @Value("${app.statistical.summary.recent-books:5}")
+    private int summaryRecentBooks;                             // Number of recent books included in the summary
+
+    private ThreadPoolExecutor summaryExecutor;                 // Bounded pool dedicated to the summary aggregates
+    private ExecutorService refreshExecutor;                    // Single thread running refreshes triggered by reads
+
     /**
      * Counts the number of active users with verified status and user role.
      *
@@ -111,4 +146,149 @@ public class StatisticalServiceImpl implements IStatisticalService {
         List<Book> lstBookRecent = bookRepository.findRecentBooks(quantity);
         return lstBookRecent.stream().map(bookMapper::toBookResponse).toList();
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves all dashboard statistics in a single payload.
+     *
+     * @return a {@link StatisticalSummaryResponse} holding every aggregate of this service
+     * @throws AppException if an aggregate query fails while no snapshot has been computed yet
+     * @implNote Serves the last snapshot even when it is older than the configured TTL; a stale read
+     * starts one background refresh and returns immediately, so concurrent readers never queue up
+     * duplicate aggregates. Only the very first read, before any snapshot exists, computes inline, and
+     * concurrent first readers share that one computation.
+     */
+    @Override
+    public StatisticalSummaryResponse getSummary() {
+        StatisticalSummaryResponse snapshot = summarySnapshot.get();
+        if (snapshot == null) {
+            synchronized (initialLoadLock) {
+                snapshot = summarySnapshot.get();
+                // Another reader may have finished the computation while this one waited
+                return snapshot != null ? snapshot : refreshSummary();
+            }
+        }
+        // Stale snapshot: keep serving it and let one background refresh replace it
+        if (!snapshot.getGeneratedAt().plusSeconds(summaryTtlSeconds).isAfter(Instant.now())) {
+            triggerRefresh();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Recomputes the dashboard snapshot in the background.
+     *
+     * @implNote Runs at a fixed delay of half the TTL by default so readers always find a fresh
+     * snapshot. Skipped while a refresh started by a reader is still running. Failures are logged and
+     * the previous snapshot is kept.
+     */
+    @Scheduled(initialDelayString = "${app.statistical.summary.refresh-interval:30000}",
+            fixedDelayString = "${app.statistical.summary.refresh-interval:30000}")
+    public void scheduledSummaryRefresh() {
+        if (refreshing.compareAndSet(false, true)) {
+            refreshQuietly();
+        }
+    }
+
+    /**
+     * Creates the bounded pool used to run the summary aggregates and the refresh thread.
+     *
+     * @implNote The queue only holds one round of aggregates; extra work runs on the caller
+     * thread instead of piling up.
+     */
+    @PostConstruct
+    void initSummaryExecutor() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        summaryExecutor = new ThreadPoolExecutor(summaryPoolSize, summaryPoolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(6),
+                r -> {
+                    Thread thread = new Thread(r, "statistical-summary-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        summaryExecutor.allowCoreThreadTimeOut(true);
+        // Separate from the aggregate pool: the refresh blocks until its aggregates finish
+        refreshExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "statistical-summary-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops the summary pool and the refresh thread on shutdown.
+     */
+    @PreDestroy
+    void shutdownSummaryExecutor() {
+        refreshExecutor.shutdownNow();
+        summaryExecutor.shutdownNow();
+    }
+
+    /**
+     * Starts a background refresh unless one is already running.
+     */
+    private void triggerRefresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(this::refreshQuietly);
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false); // Rejected during shutdown
+        }
+    }
+
+    /**
+     * Runs one refresh owned by the caller of the single-flight guard, then releases the guard.
+     */
+    private void refreshQuietly() {
+        try {
+            refreshSummary();
+        } catch (Exception e) {
+            log.warn("Could not refresh statistical summary: {}", e.getMessage());
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * Runs every aggregate concurrently and publishes the result as the new snapshot.
+     *
+     * @return the freshly computed {@link StatisticalSummaryResponse}
+     * @throws AppException if one of the aggregate queries fails with an application error
+     */
+    private StatisticalSummaryResponse refreshSummary() {
+        int year = Year.now().getValue();
+        // Fan out every aggregate on the bounded pool
+        CompletableFuture<Long> bookActive = CompletableFuture.supplyAsync(this::countBookActive, summaryExecutor);
+        CompletableFuture<Long> userActive = CompletableFuture.supplyAsync(this::countUserActive, summaryExecutor);
+        CompletableFuture<Long> borrowActive = CompletableFuture.supplyAsync(this::countBorrowBoookActive, summaryExecutor);
+        CompletableFuture<Long> allBorrow = CompletableFuture.supplyAsync(this::countAllBorrowBoook, summaryExecutor);
+        CompletableFuture<Map<Integer, Integer>> borrowTrend =
+                CompletableFuture.supplyAsync(() -> countBorrowForMonthOfYear(year), summaryExecutor);
+        CompletableFuture<List<BookResponse>> recentBooks =
+                CompletableFuture.supplyAsync(() -> getNewBook(summaryRecentBooks), summaryExecutor);
+
+        try {
+            // Wait for all aggregates and assemble the payload
+            CompletableFuture.allOf(bookActive, userActive, borrowActive, allBorrow, borrowTrend, recentBooks).join();
+            StatisticalSummaryResponse summary = StatisticalSummaryResponse.builder()
+                    .bookActive(bookActive.join())
+                    .userActive(userActive.join())
+                    .borrowBookActive(borrowActive.join())
+                    .allBorrowBook(allBorrow.join())
+                    .borrowTrend(borrowTrend.join())
+                    .recentBooks(recentBooks.join())
+                    .generatedAt(Instant.now())
+                    .build();
+            summarySnapshot.set(summary);
+            return summary;
+        } catch (CompletionException e) {
+            // Surface application errors unchanged; let anything else propagate as is
+            if (e.getCause() instanceof AppException appException) {
+                throw appException;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.project.libmanager.service.impl;
+
+import com.project.libmanager.entity.Book;
+import com.project.libmanager.entity.TrendingCheckpoint;
+import com.project.libmanager.repository.BookRepository;
+import com.project.libmanager.repository.TrendingCheckpointRepository;
+import com.project.libmanager.service.ITrendingBookService;
+import com.project.libmanager.service.dto.response.TrendingBookResponse;
+import com.project.libmanager.service.mapper.BookMapper;
+import com.project.libmanager.util.SpaceSavingSketch;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TrendingBookServiceImpl implements ITrendingBookService {
+    private static final String CHECKPOINT_ID = "borrow-window"; // Single checkpoint document for the borrow window
+
+    private final BookRepository bookRepository;                       // Loads details of the trending books
+    private final BookMapper bookMapper;                               // Converts Book entities to DTOs
+    private final TrendingCheckpointRepository checkpointRepository;  // Persists the window between restarts
+
+    // Published top-N list; readers only dereference this
+    private final AtomicReference<List<TrendingBookResponse>> trendingSnapshot = new AtomicReference<>(List.of());
+
+    @Value("${app.trending.window-days:7}")
+    private int windowDays;                     // Number of daily buckets in the sliding window
+
+    @Value("${app.trending.sketch-capacity:256}")
+    private int sketchCapacity;                 // Counters kept per daily bucket
+
+    @Value("${app.trending.top-n:10}")
+    private int topN;                           // Number of books exposed on /books/trending
+
+    private SpaceSavingSketch[] buckets;        // Ring of daily sketches, indexed by epochDay % windowDays
+    private long[] bucketDays;                  // Epoch day currently held by each ring slot
+
+    /**
+     * Records a borrow event in the current day's bucket.
+     *
+     * @param bookId the ID of the borrowed book
+     * @implNote Called after the borrowing transaction commits; O(1) except when a full bucket
+     * recycles its smallest counter.
+     */
+    @Override
+    public void recordBorrow(Long bookId) {
+        if (bookId == null) {
+            return;
+        }
+        synchronized (this) {
+            currentBucket().offer(bookId);
+        }
+    }
+
+    /**
+     * Retrieves the current trending books.
+     *
+     * @return an immutable {@link List} of {@link TrendingBookResponse}, most borrowed first
+     * @implNote Constant-time read of the snapshot published by {@link #refreshTrending()}.
+     */
+    @Override
+    public List<TrendingBookResponse> getTrendingBooks() {
+        return trendingSnapshot.get();
+    }
+
+    /**
+     * Restores the window from the last checkpoint and publishes the first snapshot.
+     *
+     * @implNote Runs once the application is ready so storage failures do not block startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreCheckpoint() {
+        try {
+            checkpointRepository.findById(CHECKPOINT_ID).ifPresent(checkpoint -> {
+                synchronized (this) {
+                    ensureBuckets();
+                    long today = today();
+                    for (TrendingCheckpoint.Bucket saved : checkpoint.getBuckets()) {
+                        // Skip buckets that slid out of the window while the app was down
+                        if (saved.getEpochDay() <= today - windowDays || saved.getEpochDay() > today) {
+                            continue;
+                        }
+                        int slot = slotOf(saved.getEpochDay());
+                        buckets[slot].clear();
+                        bucketDays[slot] = saved.getEpochDay();
+                        for (int i = 0; i < saved.getBookIds().size(); i++) {
+                            buckets[slot].restore(saved.getBookIds().get(i), saved.getCounts().get(i),
+                                    saved.getErrors().get(i));
+                        }
+                    }
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Could not restore trending checkpoint: {}", e.getMessage());
+        }
+        refreshTrending();
+    }
+
+    /**
+     * Merges the daily buckets and publishes a new top-N snapshot.
+     *
+     * @implNote Book details are loaded with a single query; deleted books are left out.
+     */
+    @Scheduled(initialDelayString = "${app.trending.refresh-interval:60000}",
+            fixedDelayString = "${app.trending.refresh-interval:60000}")
+    public void refreshTrending() {
+        try {
+            Map<Long, Long> totals = new HashMap<>();
+            synchronized (this) {
+                ensureBuckets();
+                long today = today();
+                for (int slot = 0; slot < buckets.length; slot++) {
+                    // Ignore slots holding days outside the window
+                    if (bucketDays[slot] > today - windowDays) {
+                        buckets[slot].forEach((bookId, count) -> totals.merge(bookId, count, Long::sum));
+                    }
+                }
+            }
+
+            // Select top-N candidates; a little extra room absorbs deleted books
+            List<Map.Entry<Long, Long>> ranked = totals.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder()))
+                    .limit(topN * 2L)
+                    .toList();
+            Map<Long, Book> books = bookRepository.findAllById(ranked.stream().map(Map.Entry::getKey).toList())
+                    .stream()
+                    .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+            List<TrendingBookResponse> trending = new ArrayList<>(topN);
+            for (Map.Entry<Long, Long> entry : ranked) {
+                Book book = books.get(entry.getKey());
+                if (book == null || book.isDeleted()) {
+                    continue;
+                }
+                trending.add(TrendingBookResponse.builder()
+                        .book(bookMapper.toBookResponse(book))
+                        .borrowCount(entry.getValue())
+                        .build());
+                if (trending.size() == topN) {
+                    break;
+                }
+            }
+            trendingSnapshot.set(List.copyOf(trending));
+        } catch (Exception e) {
+            log.warn("Could not refresh trending books: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Persists the sliding window so a restart keeps the recent history.
+     */
+    @Scheduled(initialDelayString = "${app.trending.checkpoint-interval:300000}",
+            fixedDelayString = "${app.trending.checkpoint-interval:300000}")
+    public void checkpoint() {
+        List<TrendingCheckpoint.Bucket> saved = new ArrayList<>();
+        synchronized (this) {
+            ensureBuckets();
+            long today = today();
+            for (int slot = 0; slot < buckets.length; slot++) {
+                if (bucketDays[slot] <= today - windowDays) {
+                    continue;
+                }
+                List<Long> bookIds = new ArrayList<>();
+                List<Long> counts = new ArrayList<>();
+                List<Long> errors = new ArrayList<>();
+                SpaceSavingSketch sketch = buckets[slot];
+                sketch.forEach((bookId, count) -> {
+                    bookIds.add(bookId);
+                    counts.add(count);
+                    errors.add(sketch.errorOf(bookId));
+                });
+                saved.add(TrendingCheckpoint.Bucket.builder()
+                        .epochDay(bucketDays[slot])
+                        .bookIds(bookIds)
+                        .counts(counts)
+                        .errors(errors)
+                        .build());
+            }
+        }
+        try {
+            checkpointRepository.save(TrendingCheckpoint.builder()
+                    .id(CHECKPOINT_ID)
+                    .savedAt(Instant.now())
+                    .buckets(saved)
+                    .build());
+        } catch (Exception e) {
+            log.warn("Could not save trending checkpoint: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the sketch for today, recycling the ring slot if it still holds an older day.
+     *
+     * @return today's {@link SpaceSavingSketch}
+     * @implNote Must be called while holding this object's monitor.
+     */
+    private SpaceSavingSketch currentBucket() {
+        ensureBuckets();
+        long today = today();
+        int slot = slotOf(today);
+        if (bucketDays[slot] != today) {
+            buckets[slot].clear();
+            bucketDays[slot] = today;
+        }
+        return buckets[slot];
+    }
+
+    /**
+     * Lazily allocates the bucket ring once configuration values are injected.
+     */
+    private void ensureBuckets() {
+        if (buckets == null) {
+            buckets = new SpaceSavingSketch[windowDays];
+            bucketDays = new long[windowDays];
+            for (int i = 0; i < windowDays; i++) {
+                buckets[i] = new SpaceSavingSketch(sketchCapacity);
+                bucketDays[i] = Long.MIN_VALUE;
+            }
+        }
+    }
+
+    private int slotOf(long epochDay) {
+        return (int) Math.floorMod(epochDay, (long) windowDays);
+    }
+
+    private long today() {
+        return LocalDate.now(ZoneOffset.UTC).toEpochDay();
+    }
+}
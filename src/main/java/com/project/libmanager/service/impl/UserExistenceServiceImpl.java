@@ -0,0 +1,187 @@
+package com.project.libmanager.service.impl;
+
+import com.project.libmanager.repository.UserRepository;
+import com.project.libmanager.service.IUserExistenceService;
+import com.project.libmanager.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of {@link IUserExistenceService} backed by in-memory Bloom filters of registered
+ * emails and phone numbers. A negative answer lets registration skip the existence queries; a positive
+ * one (real or false) falls back to the database check. The unique indexes on {@code users} remain the
+ * source of truth, so a stale or incomplete filter can never admit a duplicate.
+ *
+ * @implNote Until the first build finishes every lookup answers "may exist", which keeps the
+ * original query-based behaviour during startup. Filters are rebuilt nightly, sized to at least twice
+ * the current user count so the false positive rate stays near the target as users grow.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserExistenceServiceImpl implements IUserExistenceService {
+    private final UserRepository userRepository;           // Streams existing emails and phone numbers
+    private final TransactionTemplate transactionTemplate; // Keeps the stream inside a transaction
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(); // Guards against overlapping rebuilds
+    private final Queue<String[]> pending = new ConcurrentLinkedQueue<>(); // Writes seen while a build runs
+    private volatile Filters filters;                             // Null until the first build completes
+    private ExecutorService buildExecutor;                        // Single thread for the startup build
+
+    @Value("${app.registration-filter.expected-insertions:100000}")
+    private long expectedInsertions;             // Minimum capacity of each filter
+
+    @Value("${app.registration-filter.fpp:0.01}")
+    private double fpp;                          // Target false positive probability
+
+    /**
+     * Creates the thread that runs the startup build.
+     *
+     * @implNote Not the common pool: the build blocks on JDBC while streaming the whole users table,
+     * which would hold a common-pool worker that parallel streams elsewhere rely on.
+     */
+    @PostConstruct
+    void initExecutor() {
+        buildExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r, "registration-filter-builder");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Stops the build thread on shutdown.
+     */
+    @PreDestroy
+    void shutdownExecutor() {
+        buildExecutor.shutdownNow();
+    }
+
+    /**
+     * Checks whether an email may already be registered.
+     *
+     * @param email the email address
+     * @return {@code false} only if the email is definitely not registered
+     */
+    @Override
+    public boolean emailMayExist(String email) {
+        Filters current = filters;
+        return current == null || current.emails.mightContain(normalizeEmail(email));
+    }
+
+    /**
+     * Checks whether a phone number may already be registered.
+     *
+     * @param phoneNumber the phone number
+     * @return {@code false} only if the phone number is definitely not registered
+     */
+    @Override
+    public boolean phoneMayExist(String phoneNumber) {
+        Filters current = filters;
+        return current == null || current.phones.mightContain(phoneNumber);
+    }
+
+    /**
+     * Records a newly stored email and phone number.
+     *
+     * @param email       the user's email, may be {@code null}
+     * @param phoneNumber the user's phone number, may be {@code null}
+     * @implNote Called on every write that introduces an email or phone, including ones that may still
+     * roll back; an extra entry only costs a database check later. Writes during a rebuild are also
+     * queued and replayed into the new filters, since the build may already have streamed past them.
+     */
+    @Override
+    public void recordUser(String email, String phoneNumber) {
+        if (rebuilding.get()) {
+            pending.add(new String[]{email, phoneNumber});
+        }
+        Filters current = filters;
+        if (current != null) {
+            current.add(email, phoneNumber);
+        }
+    }
+
+    /**
+     * Rebuilds both filters from the users table.
+     *
+     * @implNote Streams only the two columns, row by row; the new filters replace the old ones
+     * atomically.
+     */
+    @Override
+    @Scheduled(cron = "${app.registration-filter.rebuild-cron:0 45 3 * * *}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            pending.clear();
+            long capacity = Math.max(expectedInsertions, 2 * userRepository.count());
+            Filters fresh = new Filters(new BloomFilter(capacity, fpp), new BloomFilter(capacity, fpp));
+            long[] rows = {0};
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> stream = userRepository.streamEmailsAndPhoneNumbers()) {
+                    stream.forEach(row -> {
+                        fresh.add((String) row[0], (String) row[1]);
+                        rows[0]++;
+                    });
+                }
+            });
+            filters = fresh;
+            // Replay writes that happened while streaming
+            for (String[] write; (write = pending.poll()) != null; ) {
+                fresh.add(write[0], write[1]);
+            }
+            log.info("Registration filters built from {} users in {} ms", rows[0], System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Could not build registration filters: {}", e.getMessage());
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Builds the filters once the application is ready.
+     *
+     * @implNote Runs on a dedicated thread so startup is not delayed by a large users table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        buildExecutor.execute(this::rebuild);
+    }
+
+    private static String normalizeEmail(String email) {
+        // Emails compare case-insensitively under the table's collation
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private record Filters(BloomFilter emails, BloomFilter phones) {
+        void add(String email, String phoneNumber) {
+            if (email != null) {
+                emails.put(normalizeEmail(email));
+            }
+            if (phoneNumber != null) {
+                phones.put(phoneNumber);
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.project.libmanager.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.project.libmanager.constant.ErrorCode;
+import com.project.libmanager.constant.UserAction;
+import com.project.libmanager.constant.VerificationStatus;
+import com.project.libmanager.criteria.UserCriteria;
+import com.project.libmanager.entity.User;
+import com.project.libmanager.exception.AppException;
+import com.project.libmanager.security.AuthenticatedUserResolver;
+import com.project.libmanager.service.IActivityLogService;
+import com.project.libmanager.service.IUserExportService;
+import com.project.libmanager.service.dto.response.UserExportResponse;
+import com.project.libmanager.specification.UserQueryService;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.Tuple;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of {@link IUserExportService} streaming users straight to the HTTP response.
+ * Users matching a {@link UserCriteria} are read through a JDBC cursor and written one by one as CSV
+ * or NDJSON, so memory use does not depend on how many users are exported.
+ *
+ * @implNote Users and role names come from a single left-joined query ordered by user ID; the rows of
+ * one user are merged while streaming, so no per-user role query is needed. The export runs in a
+ * read-only transaction on the MVC async thread that writes the response.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserExportServiceImpl implements IUserExportService {
+    private static final String[] CSV_HEADER = {"id", "email", "phoneNumber", "fullName", "birthDate",
+            "verificationStatus", "deleted", "lateReturnCount", "createdAt", "roles"};
+
+    private final UserQueryService userQueryService;           // Builds the filtered cursor query
+    private final IActivityLogService activityLogService;      // Audit trail
+    private final AuthenticatedUserResolver authenticatedUserResolver;
+    private final TransactionTemplate transactionTemplate;     // Template for the read-only transaction
+    private final ObjectMapper objectMapper;                   // NDJSON serialization
+
+    @Value("${app.user-export.buffer-size:65536}")
+    private int bufferSize;                     // Characters buffered before writing to the response
+
+    private TransactionTemplate readOnlyTransaction; // Read-only copy of the shared template
+    private ObjectWriter ndjsonWriter;               // ISO dates, one object per line
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+        readOnlyTransaction.setReadOnly(true);
+        // Leave the shared writer open and unflushed between lines
+        ndjsonWriter = objectMapper.writerFor(UserExportResponse.class)
+                .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Prepares a streaming export of users matching the criteria.
+     *
+     * @param criteria the {@link UserCriteria} filters, as for the user search
+     * @param format   {@code csv} or {@code ndjson}, case-insensitive
+     * @return a {@link StreamingResponseBody} writing the export
+     * @throws AppException if:
+     *                      - format is not supported (ErrorCode.EXPORT_FORMAT_UNSUPPORTED)
+     *                      - user not authenticated (ErrorCode.UNAUTHORIZED)
+     * @implNote Validation and the admin lookup happen on the request thread, before the response is
+     * committed; errors after that point can only abort the download.
+     */
+    @Override
+    public StreamingResponseBody exportUsers(UserCriteria criteria, String format) {
+        boolean ndjson = parseFormat(format);
+        User admin = authenticatedUserResolver.getCurrentUser();
+
+        return outputStream -> {
+            long start = System.currentTimeMillis();
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), bufferSize);
+            CSVPrinter csvPrinter = ndjson ? null : new CSVPrinter(writer,
+                    CSVFormat.DEFAULT.builder().setHeader(CSV_HEADER).build());
+            long exported;
+            try {
+                exported = readOnlyTransaction.execute(status -> {
+                    try (Stream<Tuple> tuples = userQueryService.streamForExport(criteria)) {
+                        return writeUsers(tuples.iterator(), writer, csvPrinter);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e); // Client went away; roll back and stop
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                log.warn("User export aborted after {} ms: {}", System.currentTimeMillis() - start, e.getMessage());
+                throw e.getCause();
+            }
+            writer.flush();
+
+            // Log admin action
+            activityLogService.logAction(
+                    admin.getId(),
+                    admin.getEmail(),
+                    UserAction.EXPORT_USERS,
+                    "Admin export " + exported + " users as " + (ndjson ? "ndjson" : "csv"),
+                    null,
+                    null
+            );
+            log.info("Exported {} users in {} ms", exported, System.currentTimeMillis() - start);
+        };
+    }
+
+    private long writeUsers(Iterator<Tuple> tuples, Writer writer, CSVPrinter csvPrinter) throws IOException {
+        long count = 0;
+        UserExportResponse current = null;
+        while (tuples.hasNext()) {
+            Tuple tuple = tuples.next();
+            Long id = tuple.get("id", Long.class);
+            // Rows of one user are adjacent; start a new user when the ID changes
+            if (current == null || !current.getId().equals(id)) {
+                if (current != null) {
+                    write(current, writer, csvPrinter);
+                    count++;
+                }
+                current = toExport(tuple);
+            }
+            String role = tuple.get("role", String.class);
+            if (role != null) {
+                current.getRoles().add(role);
+            }
+        }
+        if (current != null) {
+            write(current, writer, csvPrinter);
+            count++;
+        }
+        return count;
+    }
+
+    private void write(UserExportResponse user, Writer writer, CSVPrinter csvPrinter) throws IOException {
+        if (csvPrinter == null) {
+            ndjsonWriter.writeValue(writer, user);
+            writer.write('\n');
+            return;
+        }
+        csvPrinter.printRecord(
+                user.getId(),
+                user.getEmail(),
+                user.getPhoneNumber(),
+                user.getFullName(),
+                user.getBirthDate(),
+                user.getVerificationStatus(),
+                user.isDeleted(),
+                user.getLateReturnCount(),
+                user.getCreatedAt(),
+                String.join(";", user.getRoles())); // Same separator as the CSV import
+    }
+
+    private static UserExportResponse toExport(Tuple tuple) {
+        return UserExportResponse.builder()
+                .id(tuple.get("id", Long.class))
+                .email(tuple.get("email", String.class))
+                .phoneNumber(tuple.get("phoneNumber", String.class))
+                .fullName(tuple.get("fullName", String.class))
+                .birthDate(tuple.get("birthDate", Instant.class))
+                .verificationStatus(tuple.get("verificationStatus", VerificationStatus.class))
+                .deleted(tuple.get("deleted", Boolean.class))
+                .lateReturnCount(tuple.get("lateReturnCount", Integer.class))
+                .createdAt(tuple.get("createdAt", Instant.class))
+                .roles(new ArrayList<>(2))
+                .build();
+    }
+
+    private static boolean parseFormat(String format) {
+        // Returns true for NDJSON, false for CSV
+        return switch (format == null ? "csv" : format.toLowerCase(Locale.ROOT)) {
+            case "csv" -> false;
+            case "ndjson" -> true;
+            default -> throw new AppException(ErrorCode.EXPORT_FORMAT_UNSUPPORTED);
+        };
+    }
+}
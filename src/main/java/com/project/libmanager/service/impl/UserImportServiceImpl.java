@@ -0,0 +1,428 @@
+package com.project.libmanager.service.impl;
+
+import com.project.libmanager.constant.ErrorCode;
+import com.project.libmanager.constant.UserAction;
+import com.project.libmanager.constant.VerificationStatus;
+import com.project.libmanager.entity.Role;
+import com.project.libmanager.entity.User;
+import com.project.libmanager.exception.AppException;
+import com.project.libmanager.repository.UserBatchRepository;
+import com.project.libmanager.repository.UserRepository;
+import com.project.libmanager.security.AuthenticatedUserResolver;
+import com.project.libmanager.security.BoundedPasswordEncoder;
+import com.project.libmanager.service.IActivityLogService;
+import com.project.libmanager.service.IRoleService;
+import com.project.libmanager.service.IUserExistenceService;
+import com.project.libmanager.service.IUserImportService;
+import com.project.libmanager.service.dto.response.UserImportFailureResponse;
+import com.project.libmanager.service.dto.response.UserImportResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Implementation of {@link IUserImportService} creating users in bulk from a CSV file.
+ * Rows are streamed and processed in chunks: each chunk is validated, checked against existing users
+ * with one query per column, hashed in parallel on the password hashing pool and inserted with JDBC
+ * batches in its own transaction. Rows that cannot be imported are reported individually; they never
+ * fail the rest of the file.
+ *
+ * @implNote Expected columns: {@code email}, {@code phoneNumber}, {@code password}, {@code fullName}
+ * (required) and {@code birthDate} ({@code yyyy/MM/d}, as in the book import), {@code roles}
+ * ({@code ;}-separated, default {@code USER}), {@code verificationStatus} (optional). Validation mirrors
+ * {@code UserCreateRequest} and {@code UserServiceImpl.createUser}, including the single-admin rule.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserImportServiceImpl implements IUserImportService {
+    private static final Pattern EMAIL_PATTERN =
+            Pattern.compile("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,6}$");
+    private static final Pattern PASSWORD_PATTERN =
+            Pattern.compile("^(?=.*[A-Za-z])(?=.*\\d)(?=.*[@$!%*?&#])[A-Za-z\\d@$!%*?&#]{8,}$");
+    private static final DateTimeFormatter BIRTH_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy/MM/d");
+    private static final List<String> REQUIRED_COLUMNS = List.of("email", "phoneNumber", "password", "fullName");
+    private static final String ROLE_ADMIN = "ADMIN";
+    private static final String ROLE_USER = "USER";
+    private static final int MAX_FULL_NAME_LENGTH = 100; // Column length of users.full_name
+
+    private final UserRepository userRepository;                   // Existence checks per chunk
+    private final UserBatchRepository userBatchRepository;         // Batched inserts
+    private final BoundedPasswordEncoder passwordEncoder;          // Parallel hashing on the shared pool
+    private final IRoleService roleService;                        // Cached role lookups
+    private final IUserExistenceService userExistenceService;      // Skips queries for unseen emails/phones
+    private final IActivityLogService activityLogService;          // Audit trail
+    private final AuthenticatedUserResolver authenticatedUserResolver;
+    private final TransactionTemplate transactionTemplate;         // One transaction per chunk
+
+    @Value("${app.user-import.chunk-size:500}")
+    private int chunkSize;                      // Rows validated, hashed and inserted together
+
+    @Value("${app.user-import.hash-parallelism:0}")
+    private int hashParallelism;                // Hashes in flight; 0 leaves one pool thread for logins
+
+    @Value("${app.user-import.max-reported-failures:1000}")
+    private int maxReportedFailures;            // Failures listed in the response
+
+    @Value("${app.user-import.default-verification-status:FULLY_VERIFIED}")
+    private VerificationStatus defaultVerificationStatus; // Used when the row leaves it empty
+
+    /**
+     * Imports users from a CSV file.
+     *
+     * @param file the CSV file with a header row
+     * @return a {@link UserImportResponse} with counts and per-row failures
+     * @throws AppException if:
+     *                      - file is empty (ErrorCode.FILE_EMPTY)
+     *                      - header lacks a required column (ErrorCode.CSV_HEADER_INVALID)
+     *                      - user not authenticated (ErrorCode.UNAUTHORIZED)
+     *                      - file cannot be read (ErrorCode.UNCATEGORIZED_EXCEPTION)
+     * @implNote Not transactional as a whole: chunks already committed stay committed if a later
+     * chunk fails, and the response says exactly which rows were left out. A malformed CSV stops the
+     * import at the offending row.
+     */
+    @Override
+    public UserImportResponse importUsers(MultipartFile file) {
+        // Validate file; ensures non-empty input
+        if (file.isEmpty()) {
+            throw new AppException(ErrorCode.FILE_EMPTY);
+        }
+        long start = System.currentTimeMillis();
+        User admin = authenticatedUserResolver.getCurrentUser();
+        ImportResult result = new ImportResult(maxReportedFailures);
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8));
+             // Parse CSV lazily; expects headers and skips them, trims spaces
+             CSVParser csvParser = CSVFormat.DEFAULT
+                     .builder()
+                     .setHeader()
+                     .setSkipHeaderRecord(true)
+                     .setIgnoreSurroundingSpaces(true)
+                     .build()
+                     .parse(reader)) {
+            if (!csvParser.getHeaderMap().keySet().containsAll(REQUIRED_COLUMNS)) {
+                throw new AppException(ErrorCode.CSV_HEADER_INVALID);
+            }
+
+            // Emails and phones already taken by earlier rows of this file
+            Set<String> seenEmails = new HashSet<>();
+            Set<String> seenPhones = new HashSet<>();
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            Iterator<CSVRecord> records = csvParser.iterator();
+            while (true) {
+                CSVRecord csvRow;
+                try {
+                    if (!records.hasNext()) {
+                        break;
+                    }
+                    csvRow = records.next();
+                } catch (UncheckedIOException | IllegalStateException e) {
+                    // Broken quoting; nothing after this point can be parsed reliably
+                    log.warn("Stopping user import at malformed CSV: {}", e.getMessage());
+                    result.fail(csvParser.getRecordNumber() + 2, null, ErrorCode.CSV_VALUE_INVALID);
+                    break;
+                }
+                result.totalRows++;
+                ImportRow row = parseRow(csvRow, admin, result);
+                if (row == null) {
+                    continue;
+                }
+                // Reject repeats within the file before they reach the database; a rejected row
+                // must not reserve its email or phone for later rows
+                String email = normalizeEmail(row.user.getEmail());
+                String phone = row.user.getPhoneNumber();
+                if (seenEmails.contains(email) || seenPhones.contains(phone)) {
+                    result.fail(row.rowNumber, row.user.getEmail(), ErrorCode.CSV_ROW_DUPLICATED);
+                    continue;
+                }
+                seenEmails.add(email);
+                seenPhones.add(phone);
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) {
+                    importChunk(chunk, result);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            importChunk(chunk, result);
+        } catch (AppException e) {
+            log.error(e.getMessage(), e);
+            throw e;
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
+        }
+
+        // Log admin action
+        activityLogService.logAction(
+                admin.getId(),
+                admin.getEmail(),
+                UserAction.IMPORT_USER_BY_CSV,
+                "Admin import users by file csv: " + result.imported + " imported, " + result.failed + " failed",
+                null,
+                null
+        );
+        log.info("User import finished: {} rows, {} imported, {} failed in {} ms",
+                result.totalRows, result.imported, result.failed, System.currentTimeMillis() - start);
+
+        return UserImportResponse.builder()
+                .totalRows(result.totalRows)
+                .imported(result.imported)
+                .failed(result.failed)
+                .failures(result.failures)
+                .elapsedMillis(System.currentTimeMillis() - start)
+                .build();
+    }
+
+    /**
+     * Validates a CSV row and builds the user it describes.
+     *
+     * @return the row ready for import, or {@code null} if it was rejected and reported
+     */
+    private ImportRow parseRow(CSVRecord csvRow, User admin, ImportResult result) {
+        long rowNumber = csvRow.getRecordNumber() + 1; // Header is row 1
+        String email = value(csvRow, "email");
+        try {
+            String phoneNumber = value(csvRow, "phoneNumber");
+            String password = value(csvRow, "password");
+            String fullName = value(csvRow, "fullName");
+            // Required values first, then format checks in the order of UserCreateRequest
+            if (email == null || phoneNumber == null || password == null || fullName == null) {
+                throw new AppException(ErrorCode.NOT_BLANK);
+            }
+            if (!EMAIL_PATTERN.matcher(email).matches()) {
+                throw new AppException(ErrorCode.EMAIL_INVALID);
+            }
+            if (phoneNumber.length() != 10) {
+                throw new AppException(ErrorCode.PHONE_INVALID);
+            }
+            if (!PASSWORD_PATTERN.matcher(password).matches()) {
+                throw new AppException(ErrorCode.INVALID_PASSWORD);
+            }
+            if (fullName.length() > MAX_FULL_NAME_LENGTH) {
+                throw new AppException(ErrorCode.CHARACTER_LIMIT_EXCEEDED);
+            }
+
+            User user = User.builder()
+                    .email(email)
+                    .phoneNumber(phoneNumber)
+                    .fullName(fullName)
+                    .birthDate(parseBirthDate(value(csvRow, "birthDate")))
+                    .verificationStatus(parseVerificationStatus(value(csvRow, "verificationStatus")))
+                    .roles(parseRoles(value(csvRow, "roles")))
+                    .deleted(false)
+                    .lateReturnCount(0)
+                    .build();
+            // Audit columns; JDBC inserts bypass the entity callbacks
+            user.setCreatedAt(Instant.now());
+            user.setCreatedBy(admin.getEmail());
+            return new ImportRow(rowNumber, user, password);
+        } catch (AppException e) {
+            result.fail(rowNumber, email, e.getErrorCode());
+            return null;
+        }
+    }
+
+    /**
+     * Imports one chunk of validated rows, reporting rows that already exist or fail to insert.
+     */
+    private void importChunk(List<ImportRow> chunk, ImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // One query per column, only for values the registration filters cannot rule out
+        List<String> emailsToCheck = chunk.stream()
+                .map(row -> row.user.getEmail())
+                .filter(userExistenceService::emailMayExist)
+                .toList();
+        List<String> phonesToCheck = chunk.stream()
+                .map(row -> row.user.getPhoneNumber())
+                .filter(userExistenceService::phoneMayExist)
+                .toList();
+        Set<String> existingEmails = new HashSet<>();
+        if (!emailsToCheck.isEmpty()) {
+            userRepository.findEmailsIn(emailsToCheck).forEach(email -> existingEmails.add(normalizeEmail(email)));
+        }
+        Set<String> existingPhones = phonesToCheck.isEmpty()
+                ? Set.of()
+                : new HashSet<>(userRepository.findPhoneNumbersIn(phonesToCheck));
+
+        List<ImportRow> fresh = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (existingEmails.contains(normalizeEmail(row.user.getEmail()))) {
+                result.fail(row.rowNumber, row.user.getEmail(), ErrorCode.USER_EXISTED);
+            } else if (existingPhones.contains(row.user.getPhoneNumber())) {
+                result.fail(row.rowNumber, row.user.getEmail(), ErrorCode.PHONE_EXISTED);
+            } else {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        // Hash the whole chunk in parallel; waits here rather than on each request thread
+        List<String> hashes;
+        try {
+            hashes = passwordEncoder.encodeAll(fresh.stream().map(row -> row.rawPassword).toList(), hashParallelism);
+        } catch (AppException e) {
+            fresh.forEach(row -> result.fail(row.rowNumber, row.user.getEmail(), e.getErrorCode()));
+            return;
+        }
+        for (int i = 0; i < fresh.size(); i++) {
+            fresh.get(i).user.setPassword(hashes.get(i));
+        }
+
+        List<User> users = fresh.stream().map(row -> row.user).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> userBatchRepository.insertAll(users));
+            recordImported(users, result);
+        } catch (DataAccessException e) {
+            // A concurrent write took an email or phone; retry row by row to isolate it
+            log.warn("Batch insert of {} users failed, retrying individually: {}", users.size(), e.getMessage());
+            for (ImportRow row : fresh) {
+                insertOne(row, result);
+            }
+        }
+    }
+
+    private void insertOne(ImportRow row, ImportResult result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> userBatchRepository.insertAll(List.of(row.user)));
+            recordImported(List.of(row.user), result);
+        } catch (DataIntegrityViolationException e) {
+            // Duplicate missed by the pre-check (e.g. concurrent registration); tell which column clashed
+            String cause = String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            result.fail(row.rowNumber, row.user.getEmail(),
+                    cause.contains("'" + row.user.getPhoneNumber() + "'")
+                            ? ErrorCode.PHONE_EXISTED : ErrorCode.USER_EXISTED);
+        } catch (DataAccessException e) {
+            log.error("Could not import user {}: {}", row.user.getEmail(), e.getMessage());
+            result.fail(row.rowNumber, row.user.getEmail(), ErrorCode.UNCATEGORIZED_EXCEPTION);
+        }
+    }
+
+    private void recordImported(List<User> users, ImportResult result) {
+        for (User user : users) {
+            userExistenceService.recordUser(user.getEmail(), user.getPhoneNumber());
+        }
+        result.imported += users.size();
+    }
+
+    private Set<Role> parseRoles(String roles) {
+        Set<Role> result = new HashSet<>();
+        if (roles == null) {
+            result.add(roleService.getRoleByName(ROLE_USER));
+            return result;
+        }
+        for (String name : roles.split(";")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            // Same rule as createUser: the system has only one admin
+            if (trimmed.equals(ROLE_ADMIN)) {
+                throw new AppException(ErrorCode.ADMIN_ONLY_ONE);
+            }
+            result.add(roleService.getRoleByName(trimmed));
+        }
+        if (result.isEmpty()) {
+            throw new AppException(ErrorCode.NOT_BLANK);
+        }
+        return result;
+    }
+
+    private Instant parseBirthDate(String birthDate) {
+        if (birthDate == null) {
+            return null;
+        }
+        try {
+            Instant instant = LocalDate.parse(birthDate, BIRTH_DATE_FORMAT).atStartOfDay(ZoneId.of("UTC")).toInstant();
+            if (!instant.isBefore(Instant.now())) {
+                throw new AppException(ErrorCode.BIRTH_DATE_MUST_BE_IN_PAST);
+            }
+            return instant;
+        } catch (DateTimeParseException e) {
+            throw new AppException(ErrorCode.CSV_VALUE_INVALID);
+        }
+    }
+
+    private VerificationStatus parseVerificationStatus(String status) {
+        if (status == null) {
+            return defaultVerificationStatus;
+        }
+        try {
+            return VerificationStatus.valueOf(status.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new AppException(ErrorCode.CSV_VALUE_INVALID);
+        }
+    }
+
+    private static String value(CSVRecord csvRow, String column) {
+        // Optional columns may be absent from the header or the row; blanks count as missing
+        if (!csvRow.isSet(column)) {
+            return null;
+        }
+        String value = csvRow.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String normalizeEmail(String email) {
+        // Emails compare case-insensitively under the table's collation
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private record ImportRow(long rowNumber, User user, String rawPassword) {
+    }
+
+    private static final class ImportResult {
+        private final int maxReported;                                         // Cap on listed failures
+        private final List<UserImportFailureResponse> failures = new ArrayList<>();
+        private int totalRows;                                                 // Data rows read
+        private int imported;                                                  // Users inserted
+        private int failed;                                                    // Rows rejected
+
+        private ImportResult(int maxReported) {
+            this.maxReported = maxReported;
+        }
+
+        private void fail(long rowNumber, String email, ErrorCode errorCode) {
+            failed++;
+            if (failures.size() < maxReported) {
+                failures.add(UserImportFailureResponse.builder()
+                        .row(rowNumber)
+                        .email(email)
+                        .error(errorCode.name())
+                        .message(errorCode.getMessage())
+                        .build());
+            }
+        }
+    }
+}
@@ -3,16 +3,17 @@ package com.project.libmanager.service.impl;
 import com.project.libmanager.constant.ErrorCode;
 import com.project.libmanager.constant.UserAction;
 import com.project.libmanager.criteria.UserCriteria;
-import com.project.libmanager.entity.LoginDetail;
 import com.project.libmanager.entity.Role;
 import com.project.libmanager.entity.User;
 import com.project.libmanager.exception.AppException;
 import com.project.libmanager.repository.BorrowingRepository;
-import com.project.libmanager.repository.LoginDetailRepository;
 import com.project.libmanager.repository.RoleRepository;
 import com.project.libmanager.repository.UserRepository;
+import com.project.libmanager.security.AuthenticatedUserResolver;
+import com.project.libmanager.security.UserClaimsCache;
 import com.project.libmanager.service.IActivityLogService;
 import com.project.libmanager.service.ILoginDetailService;
+import com.project.libmanager.service.IUserExistenceService;
 import com.project.libmanager.service.IUserService;
 import com.project.libmanager.service.dto.request.UserCreateRequest;
 import com.project.libmanager.service.dto.request.UserUpdateRequest;
@@ -26,14 +27,15 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.context.SecurityContext;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -50,8 +52,10 @@ public class UserServiceImpl implements IUserService {
     private final UserQueryService userQueryService;          // Service for complex user queries
     private final IActivityLogService activityLogService;     // Service for logging actions
     private final BorrowingRepository borrowingRepository;    // Repository for borrowing records
-    private final LoginDetailRepository loginDetailRepository; // Repository for login details
     private final ILoginDetailService loginDetailService;     // Service for managing login details
+    private final UserClaimsCache userClaimsCache;            // Cached token claims; evicted on role or email change
+    private final AuthenticatedUserResolver authenticatedUserResolver; // Resolves the current user once per request
+    private final IUserExistenceService userExistenceService; // Registration filters; fed new emails/phones
 
     private static final String ROLE_ADMIN = "ADMIN";
 
@@ -105,12 +109,13 @@ public class UserServiceImpl implements IUserService {
                 .collect(Collectors.toSet())); // Collect into set
 
         // Get the authenticated admin performing this action
-        User userAction = getAuthenticatedUser();
+        User userAction = authenticatedUserResolver.getCurrentUser();
         try {
             // Assign roles to the new user
             user.setRoles(roles);
             // Save the new user to the database
             userRepository.save(user);
+            userExistenceService.recordUser(user.getEmail(), user.getPhoneNumber());
             // Convert saved user to response DTO
             UserResponse userResponse = userMapper.toUserResponse(user);
             // Log the creation action by admin
@@ -131,35 +136,6 @@ public class UserServiceImpl implements IUserService {
         }
     }
 
-    /**
-     * Retrieves the currently authenticated user from the security context.
-     *
-     * @return a {@link User} entity representing the authenticated user, typically an admin
-     * @throws AppException if:
-     *                      - no security context or authentication exists (ErrorCode.UNAUTHORIZED)
-     *                      - authenticated user not found (ErrorCode.USER_NOT_EXISTED)
-     * @implNote This method extracts the email from the security context and queries
-     * the database to return the corresponding user.
-     */
-    private User getAuthenticatedUser() {
-        // Get current security context holding authentication details
-        SecurityContext jwtContext = SecurityContextHolder.getContext();
-        // Check if context or authentication is invalid or user is not authenticated
-        if (jwtContext == null || jwtContext.getAuthentication() == null ||
-                !jwtContext.getAuthentication().isAuthenticated()) {
-            // Throw exception if authentication is missing or invalid
-            throw new AppException(ErrorCode.UNAUTHORIZED);
-        }
-        // Log the authenticated user's email for debugging
-        log.info("Authentication {}", jwtContext.getAuthentication().getName());
-
-        // Extract email from authentication object
-        String email = jwtContext.getAuthentication().getName();
-        // Fetch user by email from database
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED)); // Throw if not found
-    }
-
     /**
      * Fetches a paginated list of all users.
      *
@@ -190,15 +166,28 @@ public class UserServiceImpl implements IUserService {
      *
      * @param userPage the {@link Page} of {@link User} entities to convert
      * @return a {@link Page} of {@link UserResponse} containing mapped user details
-     * @implNote This method maps the content of the user page to a list of user
-     * responses and returns the paginated response.
+     * @implNote Reloads the whole page together with roles in one query instead of fetching
+     * each user and its roles separately, so the query count does not grow with page size.
+     * The original page order is preserved.
      */
     @Override
     public Page<UserResponse> mapUserPageUserResponsePage(Page<User> userPage) {
-        // Map each user entity to a response DTO
-        List<UserResponse> userResponses = userPage.getContent().stream()
-                .map(user -> mapToUserResponseByMapper(user.getId())) // Convert user by ID
-                .toList(); // Collect into list
+        // Collect IDs of the page in display order
+        List<Long> ids = userPage.getContent().stream().map(User::getId).toList();
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), userPage.getPageable(), userPage.getTotalElements());
+        }
+
+        // Batch-fetch users with their roles; one round trip for the whole page
+        Map<Long, User> usersById = userRepository.findWithRolesByIdIn(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        // Map in page order; skip users removed between the two queries
+        List<UserResponse> userResponses = ids.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .map(userMapper::toUserResponse)
+                .toList();
 
         // Create and return a new paginated response with mapped data
         return new PageImpl<>(userResponses, userPage.getPageable(), userPage.getTotalElements());
@@ -215,8 +204,8 @@ public class UserServiceImpl implements IUserService {
      */
     @Override
     public UserResponse mapToUserResponseByMapper(Long id) {
-        // Fetch user by ID from repository
-        User user = userRepository.findById(id).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        // Fetch user with roles in one query; the response maps them
+        User user = userRepository.findWithRolesById(id).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
         // Convert user entity to response DTO
         return userMapper.toUserResponse(user);
     }
@@ -231,9 +220,9 @@ public class UserServiceImpl implements IUserService {
      */
     @Override
     public UserResponse getUser(Long id) {
-        // Fetch user by ID and map directly to response DTO
+        // Fetch user with roles in one query and map directly to response DTO
         return userMapper.toUserResponse(
-                userRepository.findById(id).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED)));
+                userRepository.findWithRolesById(id).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED)));
     }
 
     /**
@@ -244,33 +233,13 @@ public class UserServiceImpl implements IUserService {
      *                      - user is not authenticated (ErrorCode.UNAUTHORIZED)
      *                      - user does not exist (ErrorCode.USER_NOT_EXISTED)
      *                      - unexpected error occurs (ErrorCode.UNCATEGORIZED_EXCEPTION)
-     * @implNote This method retrieves the currently logged-in user using the
-     * security context.
+     * @implNote This method retrieves the currently logged-in user via {@link AuthenticatedUserResolver}.
      */
     @Override
     public UserResponse getMyInfo() {
         try {
-            // Get current security context
-            SecurityContext jwtContext = SecurityContextHolder.getContext();
-
-            // Validate security context and authentication
-            if (jwtContext == null || jwtContext.getAuthentication() == null ||
-                    !jwtContext.getAuthentication().isAuthenticated()) {
-                // Throw exception if authentication is missing or invalid
-                throw new AppException(ErrorCode.UNAUTHORIZED);
-            }
-
-            // Extract email from authentication object
-            String email = jwtContext.getAuthentication().getName();
-
-            // Fetch user by email from database
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new AppException(ErrorCode.USER_EXISTED));
-
-            // check null user (already handled by orElseThrow)
-            if (user == null) {
-                throw new AppException(ErrorCode.USER_NOT_EXISTED);
-            }
+            // Resolve current user; cached per request and briefly across requests
+            User user = authenticatedUserResolver.getCurrentUser();
 
             // Convert user entity to response DTO
             return userMapper.toUserResponse(user);
@@ -302,8 +271,8 @@ public class UserServiceImpl implements IUserService {
     @Transactional
     @Override
     public UserResponse updateUser(Long id, UserUpdateRequest request) {
-        // Fetch existing user by ID
-        User u = userRepository.findById(id).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        // Fetch existing user with roles; needed for the admin check and the old-state snapshot
+        User u = userRepository.findWithRolesById(id).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
         // Store current user state as response DTO to save activity log
         UserResponse oldeUserResponse = userMapper.toUserResponse(u);
         // Check if user has ADMIN role
@@ -317,7 +286,7 @@ public class UserServiceImpl implements IUserService {
             }
         }
         // Get authenticated admin performing the update
-        User userAction = getAuthenticatedUser();
+        User userAction = authenticatedUserResolver.getCurrentUser();
         try {
             // Store current encrypted password
             String oldPassword = u.getPassword();
@@ -344,6 +313,12 @@ public class UserServiceImpl implements IUserService {
 
             // Save updated user to database
             User newUser = userRepository.save(u);
+            userExistenceService.recordUser(newUser.getEmail(), newUser.getPhoneNumber());
+            // Drop cached claims under both the old and the new email
+            userClaimsCache.evict(oldeUserResponse.getEmail());
+            authenticatedUserResolver.evict(oldeUserResponse.getEmail());
+            userClaimsCache.evict(newUser.getEmail());
+            authenticatedUserResolver.evict(newUser.getEmail());
             // Convert updated user to response DTO
             UserResponse userResponse = userMapper.toUserResponse(newUser);
             // Log the update action by admin
@@ -381,8 +356,8 @@ public class UserServiceImpl implements IUserService {
     @Transactional
     @Override
     public void deleteUser(Long userId) {
-        // Fetch user by ID
-        User user = userRepository.findById(userId).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        // Fetch user with roles; needed for the admin check
+        User user = userRepository.findWithRolesById(userId).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
         // Check if user has ADMIN role
         if (user.getRoles().stream().anyMatch(role -> role.getName().equals(ROLE_ADMIN))) {
             throw new AppException(ErrorCode.CANNOT_DELETE_ADMIN);
@@ -393,19 +368,16 @@ public class UserServiceImpl implements IUserService {
         }
 
         // Get authenticated admin performing the deletion
-        User userAction = getAuthenticatedUser();
+        User userAction = authenticatedUserResolver.getCurrentUser();
         try {
             // Mark user as deleted (soft delete)
             user.setDeleted(true);
-            // Fetch all login details associated with the user
-            List<LoginDetail> userLoginDetails = loginDetailRepository.findByUserId(user.getId());
-            // Iterate through login details and disable each one
-            for (LoginDetail loginDetail : userLoginDetails) {
-                // Disable login detail by its JTI (JWT identifier)
-                loginDetailService.disableLoginDetailById(loginDetail.getJti());
-            }
+            // Disable every session of the user in one bulk update
+            loginDetailService.disableAllLoginDetailsByUser(user.getId());
             // Save the updated (deleted) user
             userRepository.save(user);
+            userClaimsCache.evict(user.getEmail());
+            authenticatedUserResolver.evict(user.getEmail());
             // Log the deletion action by admin
             activityLogService.logAction(
                     userAction.getId(),
@@ -455,4 +427,34 @@ public class UserServiceImpl implements IUserService {
         // Fetch user by email from repository
         return userRepository.findByEmail(email).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
     }
-}
\ No newline at end of file
+
+    /**
+     * Finds a user by their email address together with their roles.
+     *
+     * @param email the email address of the user to find
+     * @return a {@link User} entity matching the email, with roles initialized
+     * @throws AppException if no user exists with the given email (ErrorCode.USER_NOT_EXISTED)
+     * @implNote Loads the user and roles in a single query, so callers outside a session
+     * (e.g. the authentication pipeline) can read roles without further lookups.
+     */
+    @Override
+    public User findByEmailWithRoles(String email) {
+        // Fetch user and roles in one query
+        return userRepository.findWithRolesByEmail(email)
+                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+    }
+
+    /**
+     * Replaces a user's password hash with one computed at the current cost factor.
+     *
+     * @param email           the email address of the user
+     * @param encodedPassword the new hash of the unchanged password
+     * @implNote Issues a single bulk update so it is safe on the authentication path, where
+     * entity callbacks and dirty checking would add work or run without an audit principal.
+     */
+    @Override
+    public void upgradePasswordHash(String email, String encodedPassword) {
+        // Write only the password column; no entity load or audit callbacks
+        userRepository.updatePasswordByEmail(email, encodedPassword);
+    }
+}
@@ -6,8 +6,22 @@ import com.project.libmanager.criteria.UserCriteria;
 import com.project.libmanager.entity.User;
 import com.project.libmanager.repository.UserRepository;
 
+import com.project.libmanager.entity.Book;
+import com.project.libmanager.entity.Borrowing;
+import com.project.libmanager.entity.Role;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 
+import com.project.libmanager.entity.Role_;
 import com.project.libmanager.entity.User_;
 import com.project.libmanager.entity.Borrowing_;
 import com.project.libmanager.entity.Book_;
@@ -15,7 +29,15 @@ import com.project.libmanager.entity.Book_;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.hibernate.jpa.HibernateHints;
 import tech.jhipster.service.QueryService;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 
 import lombok.RequiredArgsConstructor;
 
@@ -23,12 +45,52 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class UserQueryService extends QueryService<User> {
     private final UserRepository userRepository;
+    private final EntityManager entityManager;
 
     public Page<User> findByCriteria(UserCriteria criteria, Pageable pageable) {
         Specification<User> specification = createSpecification(criteria);
         return userRepository.findAll(specification, pageable);
     }
 
+    /**
+     * Streams the columns exported for users matching the criteria, one tuple per user and role.
+     * Roles are left-joined so users and their role names arrive in a single query; tuples are ordered
+     * by user ID, so all rows of one user are adjacent and can be merged while streaming.
+     * Aliases: {@code id, email, phoneNumber, fullName, birthDate, verificationStatus, deleted,
+     * lateReturnCount, createdAt, role}.
+     *
+     * @implNote Selects scalars only, so nothing accumulates in the persistence context. The statement
+     * asks MySQL to stream rows one by one (fetch size {@code Integer.MIN_VALUE}) rather than buffer the
+     * whole result; no other statement may run on the connection until the stream is closed. Must be
+     * consumed inside a transaction and closed.
+     */
+    public Stream<Tuple> streamForExport(UserCriteria criteria) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> root = query.from(User.class);
+        Join<User, Role> role = root.join(User_.roles, JoinType.LEFT);
+        query.multiselect(
+                root.get(User_.id).alias("id"),
+                root.get(User_.email).alias("email"),
+                root.get(User_.phoneNumber).alias("phoneNumber"),
+                root.get(User_.fullName).alias("fullName"),
+                root.get(User_.birthDate).alias("birthDate"),
+                root.get(User_.verificationStatus).alias("verificationStatus"),
+                root.get(User_.deleted).alias("deleted"),
+                root.get(User_.lateReturnCount).alias("lateReturnCount"),
+                root.get(User_.createdAt).alias("createdAt"),
+                role.get(Role_.name).alias("role"));
+        Predicate predicate = createSpecification(criteria).toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(root.get(User_.id)));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, Integer.MIN_VALUE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
     private Specification<User> createSpecification(UserCriteria criteria) {
         Specification<User> specification = Specification.where(null);
         if (criteria.getEmail() != null) {
@@ -52,30 +114,98 @@ public class UserQueryService extends QueryService<User> {
                     .and(buildRangeSpecification(criteria.getLateReturnCount(), User_.lateReturnCount));
         }
 
-        if (criteria.getBookIsbn() != null) {
-            specification = specification.and(buildSpecification(criteria.getBookIsbn(),
-                    root -> root.join(User_.borrowings, JoinType.INNER)
-                            .join(Borrowing_.book, JoinType.INNER)
-                            .get(Book_.isbn)));
+        if (hasBorrowingCriteria(criteria)) {
+            specification = specification.and(borrowingExistsSpecification(criteria));
         }
 
-        if (criteria.getBookTitle() != null) {
-            specification = specification.and(buildSpecification(criteria.getBookTitle(),
-                    root -> root.join(User_.borrowings, JoinType.INNER)
-                            .join(Borrowing_.book, JoinType.INNER)
-                            .get(Book_.title)));
-        }
+        return specification;
+    }
+
+    private boolean hasBorrowingCriteria(UserCriteria criteria) {
+        return criteria.getBookIsbn() != null || criteria.getBookTitle() != null
+                || criteria.getBorrowDate() != null || criteria.getReturnDate() != null;
+    }
 
-        if (criteria.getBorrowDate() != null) {
-            specification = specification.and(buildSpecification(criteria.getBorrowDate(),
-                    root -> root.join(User_.borrowings, JoinType.INNER).get(Borrowing_.borrowDate)));
+    /**
+     * Compiles every borrowing-related filter into one correlated
+     * {@code EXISTS (SELECT 1 FROM borrowings b JOIN books k ... WHERE b.user_id = u.id AND ...)}.
+     * All filters apply to the same borrowing, and the outer query never multiplies user rows,
+     * so paging and counts stay exact without {@code DISTINCT}.
+     */
+    private Specification<User> borrowingExistsSpecification(UserCriteria criteria) {
+        return (root, query, cb) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<Borrowing> borrowing = subquery.from(Borrowing.class);
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(borrowing.get(Borrowing_.user), root));
+
+            if (criteria.getBookIsbn() != null || criteria.getBookTitle() != null) {
+                Join<Borrowing, Book> book = borrowing.join(Borrowing_.book, JoinType.INNER);
+                if (criteria.getBookIsbn() != null) {
+                    predicates.addAll(stringPredicates(cb, book.get(Book_.isbn), criteria.getBookIsbn()));
+                }
+                if (criteria.getBookTitle() != null) {
+                    predicates.addAll(stringPredicates(cb, book.get(Book_.title), criteria.getBookTitle()));
+                }
+            }
+            if (criteria.getBorrowDate() != null) {
+                predicates.addAll(rangePredicates(cb, borrowing.get(Borrowing_.borrowDate), criteria.getBorrowDate()));
+            }
+            if (criteria.getReturnDate() != null) {
+                predicates.addAll(rangePredicates(cb, borrowing.get(Borrowing_.returnDate), criteria.getReturnDate()));
+            }
+
+            subquery.select(cb.literal(1L)).where(predicates.toArray(new Predicate[0]));
+            return cb.exists(subquery);
+        };
+    }
+
+    private List<Predicate> stringPredicates(CriteriaBuilder cb, Path<String> path, StringFilter filter) {
+        List<Predicate> predicates = filterPredicates(cb, path, filter);
+        if (filter.getContains() != null) {
+            predicates.add(cb.like(cb.upper(path), wrapLikeQuery(filter.getContains())));
+        }
+        if (filter.getDoesNotContain() != null) {
+            predicates.add(cb.not(cb.like(cb.upper(path), wrapLikeQuery(filter.getDoesNotContain()))));
         }
+        return predicates;
+    }
 
-        if (criteria.getReturnDate() != null) {
-            specification = specification.and(buildSpecification(criteria.getReturnDate(),
-                    root -> root.join(User_.borrowings, JoinType.INNER).get(Borrowing_.returnDate)));
+    private <X extends Comparable<? super X>> List<Predicate> rangePredicates(CriteriaBuilder cb, Path<X> path,
+                                                                             RangeFilter<X> filter) {
+        List<Predicate> predicates = filterPredicates(cb, path, filter);
+        if (filter.getGreaterThan() != null) {
+            predicates.add(cb.greaterThan(path, filter.getGreaterThan()));
+        }
+        if (filter.getGreaterThanOrEqual() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(path, filter.getGreaterThanOrEqual()));
+        }
+        if (filter.getLessThan() != null) {
+            predicates.add(cb.lessThan(path, filter.getLessThan()));
         }
+        if (filter.getLessThanOrEqual() != null) {
+            predicates.add(cb.lessThanOrEqualTo(path, filter.getLessThanOrEqual()));
+        }
+        return predicates;
+    }
 
-        return specification;
+    private <X> List<Predicate> filterPredicates(CriteriaBuilder cb, Path<X> path, Filter<X> filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getEquals() != null) {
+            predicates.add(cb.equal(path, filter.getEquals()));
+        }
+        if (filter.getNotEquals() != null) {
+            predicates.add(cb.notEqual(path, filter.getNotEquals()));
+        }
+        if (filter.getIn() != null && !filter.getIn().isEmpty()) {
+            predicates.add(path.in(filter.getIn()));
+        }
+        if (filter.getNotIn() != null && !filter.getNotIn().isEmpty()) {
+            predicates.add(cb.not(path.in(filter.getNotIn())));
+        }
+        if (filter.getSpecified() != null) {
+            predicates.add(Boolean.TRUE.equals(filter.getSpecified()) ? cb.isNotNull(path) : cb.isNull(path));
+        }
+        return predicates;
     }
 }
@@ -48,4 +48,24 @@ public class AsyncMailSender {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Asynchronously sends the account verification email of a new registration.
+     *
+     * @param fullName the full name of the user
+     * @param otp      the email verification OTP
+     * @param email    the recipient's email address
+     * @implNote Scheduled after the registration transaction commits, so SMTP latency is no longer part
+     * of the request and no mail goes out for a rolled-back registration. Failures are logged only;
+     * the user can request a new OTP.
+     */
+    @Async
+    public void sendEmailVerify(String fullName, String otp, String email) {
+        try {
+            // Send verification email; delegates to IMailService
+            emailService.sendEmailVerify(fullName, otp, email);
+        } catch (Exception e) {
+            log.error("Could not send verification email to {}: {}", email, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.project.libmanager.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings.
+ * Answers "definitely absent" or "possibly present"; a negative answer is always correct, a
+ * positive one is wrong with roughly the configured false positive probability.
+ *
+ * @implNote Bits live in an {@link AtomicLongArray} so concurrent {@link #put(String)} calls never
+ * lose bits. Probe positions use double hashing over a single 64-bit FNV-1a hash finalized with the
+ * MurmurHash3 mixer.
+ */
+public class BloomFilter {
+    private final AtomicLongArray bits; // Bit set, 64 bits per word
+    private final long numBits;         // Total number of bits
+    private final int numHashes;        // Probes per element
+
+    /**
+     * Creates a filter sized for the expected number of elements.
+     *
+     * @param expectedInsertions expected number of distinct elements
+     * @param fpp                target false positive probability, e.g. {@code 0.01}
+     */
+    public BloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max(64, ((m + 63) / 64) * 64);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (numBits / 64));
+    }
+
+    /**
+     * Adds an element.
+     *
+     * @param value the element
+     */
+    public void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long index = Math.floorMod(h1 + (long) i * h2, numBits);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break; // Already set
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * Checks whether an element may have been added.
+     *
+     * @param value the element
+     * @return {@code false} if the element was definitely never added
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long index = Math.floorMod(h1 + (long) i * h2, numBits);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String value) {
+        // FNV-1a over UTF-16 code units
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        // MurmurHash3 finalizer; spreads bits for the two derived hashes
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,65 @@
+package com.project.libmanager.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small thread-safe LRU cache with a fixed maximum number of entries.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @implNote Backed by an access-ordered {@link LinkedHashMap} guarded by its own monitor;
+ * intended for small hot sets where a lock per access is cheaper than the work being cached.
+ */
+public class BoundedLruCache<K, V> {
+    private final Map<K, V> entries;            // Access-ordered map; eldest entry evicted beyond capacity
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maxEntries the maximum number of entries kept
+     */
+    public BoundedLruCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns a cached value and marks it as recently used.
+     *
+     * @param key the key to look up
+     * @return the cached value, or {@code null} if absent
+     */
+    public V get(K key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    /**
+     * Caches a value, evicting the least recently used entry if the cache is full.
+     *
+     * @param key   the key
+     * @param value the value to cache
+     */
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, value);
+        }
+    }
+
+    /**
+     * Removes a cached value.
+     *
+     * @param key the key to remove
+     */
+    public void remove(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.project.libmanager.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Concurrent map whose entries expire at a per-entry deadline, backed by a hashed timing wheel.
+ * Reads never return expired entries; {@link #advance(long)} removes them in bulk so memory is
+ * reclaimed even for keys nobody looks up again.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ * @implNote Each entry is scheduled once into the wheel slot of its deadline tick. Advancing the
+ * wheel visits only the slots whose ticks have passed, so expiry costs O(expired + wrapped entries)
+ * rather than a full scan. Entries replaced or removed early leave a stale key in their slot, which
+ * is skipped when the slot is processed.
+ */
+public class ExpiringMap<K, V> {
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Queue<K>[] wheel;                 // Slot -> keys due in that slot
+    private final long tickMillis;                  // Width of one slot
+    private long lastTick;                          // Last processed tick; guarded by advance()
+
+    /**
+     * Creates a map with the given wheel geometry.
+     *
+     * @param slots      number of wheel slots
+     * @param tickMillis width of one slot in milliseconds; also the expiry resolution
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Generic array creation; slots only ever hold Queue<K>
+    public ExpiringMap(int slots, long tickMillis) {
+        this.tickMillis = tickMillis;
+        this.wheel = new Queue[slots];
+        for (int i = 0; i < slots; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.lastTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    /**
+     * Stores a value unless a live entry already exists for the key.
+     *
+     * @param key            the key
+     * @param value          the value
+     * @param expiresAtMillis epoch millis after which the entry is gone
+     * @return {@code true} if stored, {@code false} if a live entry exists
+     */
+    public boolean putIfAbsent(K key, V value, long expiresAtMillis) {
+        Entry<V> fresh = new Entry<>(value, expiresAtMillis);
+        long now = System.currentTimeMillis();
+        boolean[] stored = {false};
+        entries.compute(key, (k, current) -> {
+            if (current != null && current.expiresAtMillis > now) {
+                return current; // Live entry wins
+            }
+            stored[0] = true;
+            return fresh;
+        });
+        if (stored[0]) {
+            wheel[slot(expiresAtMillis / tickMillis)].add(key);
+        }
+        return stored[0];
+    }
+
+    /**
+     * Returns the live value for a key.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if absent or expired
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry == null || entry.expiresAtMillis <= System.currentTimeMillis() ? null : entry.value;
+    }
+
+    /**
+     * Returns the value for a key even if it has expired but not yet been swept.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if absent
+     */
+    public V getIncludingExpired(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Removes a key only if it still maps to the given value.
+     *
+     * @param key   the key
+     * @param value the expected value
+     * @return {@code true} if removed
+     */
+    public boolean remove(K key, V value) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && entry.value == value && entries.remove(key, entry);
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return the removed value, or {@code null} if absent
+     */
+    public V remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Expires every entry whose deadline has passed.
+     *
+     * @param nowMillis current epoch millis
+     * @return number of entries removed
+     */
+    public synchronized int advance(long nowMillis) {
+        long currentTick = nowMillis / tickMillis;
+        // Never walk more than one full turn; later ticks map onto the same slots
+        long from = Math.max(lastTick, currentTick - wheel.length + 1);
+        int removed = 0;
+        for (long tick = from; tick <= currentTick; tick++) {
+            Queue<K> slot = wheel[slot(tick)];
+            int pending = slot.size();
+            // Only visit keys present when we started; re-queued keys wait for their own turn
+            for (int i = 0; i < pending; i++) {
+                K key = slot.poll();
+                if (key == null) {
+                    break;
+                }
+                Entry<V> entry = entries.get(key);
+                if (entry == null) {
+                    continue; // Already removed; drop stale slot reference
+                }
+                if (entry.expiresAtMillis <= nowMillis) {
+                    if (entries.remove(key, entry)) {
+                        removed++;
+                    }
+                } else if (slot(entry.expiresAtMillis / tickMillis) == slot(tick)) {
+                    slot.add(key); // Due in a later turn of the wheel
+                }
+                // Otherwise the key was replaced and is queued in another slot already
+            }
+        }
+        lastTick = currentTick;
+        return removed;
+    }
+
+    /**
+     * Returns the number of stored entries, including ones expired but not yet advanced past.
+     *
+     * @return entry count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) wheel.length);
+    }
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+    }
+}
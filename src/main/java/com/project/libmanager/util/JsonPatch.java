@@ -0,0 +1,118 @@
+package com.project.libmanager.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Field-level diff and patch between two JSON trees, using the {@code add}, {@code remove} and
+ * {@code replace} operations of RFC 6902 (JSON Patch) with RFC 6901 pointers.
+ *
+ * @implNote Objects are compared field by field, recursively. Arrays and scalars are compared as a
+ * whole and replaced when they differ, which keeps patches small for the flat DTOs written to the
+ * activity log without the cost of an array LCS.
+ */
+public final class JsonPatch {
+    public static final String ADD = "add";
+    public static final String REMOVE = "remove";
+    public static final String REPLACE = "replace";
+
+    /**
+     * One patch operation.
+     *
+     * @param op    {@code add}, {@code remove} or {@code replace}
+     * @param path  JSON pointer of the target; {@code ""} is the whole document
+     * @param value the new value; null for {@code remove}
+     */
+    public record Operation(String op, String path, JsonNode value) {
+    }
+
+    private JsonPatch() {
+    }
+
+    /**
+     * Computes the operations turning {@code source} into {@code target}.
+     *
+     * @param source the original tree
+     * @param target the changed tree
+     * @return the operations, empty if the trees are equal
+     */
+    public static List<Operation> diff(JsonNode source, JsonNode target) {
+        List<Operation> operations = new ArrayList<>();
+        diff("", source, target, operations);
+        return operations;
+    }
+
+    /**
+     * Applies operations to a copy of {@code source}.
+     *
+     * @param source     the original tree; not modified
+     * @param operations operations produced by {@link #diff(JsonNode, JsonNode)}
+     * @return the patched tree
+     * @throws IllegalArgumentException if an operation does not fit the tree
+     */
+    public static JsonNode apply(JsonNode source, List<Operation> operations) {
+        JsonNode root = source.deepCopy();
+        for (Operation operation : operations) {
+            if (operation.path().isEmpty()) {
+                // Whole-document replace
+                root = operation.value();
+                continue;
+            }
+            int slash = operation.path().lastIndexOf('/');
+            JsonNode parent = root.at(operation.path().substring(0, slash));
+            String field = unescape(operation.path().substring(slash + 1));
+            if (!(parent instanceof ObjectNode object)) {
+                throw new IllegalArgumentException("Patch path has no parent object: " + operation.path());
+            }
+            switch (operation.op()) {
+                case ADD, REPLACE -> object.set(field, operation.value());
+                case REMOVE -> object.remove(field);
+                default -> throw new IllegalArgumentException("Unsupported patch operation: " + operation.op());
+            }
+        }
+        return root;
+    }
+
+    private static void diff(String path, JsonNode source, JsonNode target, List<Operation> operations) {
+        if (source.equals(target)) {
+            return;
+        }
+        if (!source.isObject() || !target.isObject()) {
+            operations.add(new Operation(REPLACE, path, target));
+            return;
+        }
+        // Changed and removed fields
+        Iterator<Map.Entry<String, JsonNode>> fields = source.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String fieldPath = path + "/" + escape(field.getKey());
+            JsonNode targetValue = target.get(field.getKey());
+            if (targetValue == null) {
+                operations.add(new Operation(REMOVE, fieldPath, null));
+            } else {
+                diff(fieldPath, field.getValue(), targetValue, operations);
+            }
+        }
+        // Added fields
+        Iterator<Map.Entry<String, JsonNode>> added = target.fields();
+        while (added.hasNext()) {
+            Map.Entry<String, JsonNode> field = added.next();
+            if (!source.has(field.getKey())) {
+                operations.add(new Operation(ADD, path + "/" + escape(field.getKey()), field.getValue()));
+            }
+        }
+    }
+
+    private static String escape(String field) {
+        return field.replace("~", "~0").replace("/", "~1");
+    }
+
+    private static String unescape(String token) {
+        return token.replace("~1", "/").replace("~0", "~");
+    }
+}
@@ -0,0 +1,186 @@
+package com.project.libmanager.util;
+
+/**
+ * Open-addressing hash map from positive {@code long} keys to {@code int} values.
+ * Avoids boxing so large sparse count tables stay compact.
+ *
+ * @implNote Key {@code 0} marks an empty slot, so only positive keys (entity IDs) are supported.
+ * Not thread-safe.
+ */
+public class LongIntHashMap {
+    private static final float LOAD_FACTOR = 0.6f;    // Resize threshold relative to table length
+
+    private long[] keys;                              // Slot keys; 0 means empty
+    private int[] values;                             // Slot values
+    private int size;                                 // Number of occupied slots
+    private int resizeAt;                             // Size that triggers the next resize
+
+    /**
+     * Creates a map sized for the given number of entries.
+     *
+     * @param expectedSize the expected number of entries
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Adds a delta to the value of a key, inserting the key with the delta if absent.
+     *
+     * @param key   the positive key
+     * @param delta the amount to add
+     */
+    public void addTo(long key, int delta) {
+        int slot = indexOf(key);
+        if (keys[slot] == key) {
+            values[slot] += delta;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the positive key
+     * @return the stored value, or 0 if absent
+     */
+    public int get(long key) {
+        int slot = indexOf(key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    /**
+     * Adds every entry of another map into this one.
+     *
+     * @param other the map to merge in
+     */
+    public void addAll(LongIntHashMap other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != 0) {
+                addTo(other.keys[i], other.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys with the highest values.
+     *
+     * @param k the maximum number of keys to return
+     * @return up to {@code k} keys ordered by descending value
+     * @implNote Keeps a bounded min-heap of slot indexes, so selection is O(n log k).
+     */
+    public long[] topKeys(int k) {
+        int limit = Math.min(k, size);
+        int[] heap = new int[limit];                  // Slot indexes, min-heap by value
+        int heapSize = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == 0) {
+                continue;
+            }
+            if (heapSize < limit) {
+                heap[heapSize] = i;
+                siftUp(heap, heapSize++);
+            } else if (limit > 0 && values[i] > values[heap[0]]) {
+                heap[0] = i;
+                siftDown(heap, heapSize);
+            }
+        }
+        // Drain the heap from smallest to largest, filling the result from the back
+        long[] result = new long[heapSize];
+        for (int n = heapSize; n > 0; n--) {
+            result[n - 1] = keys[heap[0]];
+            heap[0] = heap[n - 1];
+            siftDown(heap, n - 1);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the entry count
+     */
+    public int size() {
+        return size;
+    }
+
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        // Linear probing until the key or an empty slot is found
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = indexOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        size = 0;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void siftUp(int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (values[heap[parent]] <= values[heap[index]]) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int heapSize) {
+        int index = 0;
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && values[heap[left]] < values[heap[smallest]]) {
+                smallest = left;
+            }
+            if (right < heapSize && values[heap[right]] < values[heap[smallest]]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(heap, smallest, index);
+            index = smallest;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+
+    private static int mix(long key) {
+        // Fibonacci hashing; spreads sequential IDs across the table
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
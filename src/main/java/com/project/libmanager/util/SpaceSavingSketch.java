@@ -0,0 +1,96 @@
+package com.project.libmanager.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Space-Saving heavy-hitters summary over numeric keys.
+ * Tracks at most {@code capacity} counters; when full, the smallest counter is recycled for the new key
+ * and its count is kept as the new key's overestimation error.
+ *
+ * @implNote Not thread-safe; callers are expected to guard access. Eviction scans for the minimum,
+ * which is cheap for the small capacities used here (a few hundred counters).
+ */
+public class SpaceSavingSketch {
+    private final int capacity;                                   // Maximum number of tracked keys
+    private final Map<Long, long[]> counters;                     // key -> {count, error}
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param capacity the maximum number of keys tracked at once
+     */
+    public SpaceSavingSketch(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Records one occurrence of a key.
+     *
+     * @param key the key to count
+     */
+    public void offer(long key) {
+        long[] counter = counters.get(key);
+        if (counter != null) {
+            counter[0]++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new long[]{1, 0});
+            return;
+        }
+        // Recycle the smallest counter; the new key inherits its count as error bound
+        Long minKey = null;
+        long minCount = Long.MAX_VALUE;
+        for (Map.Entry<Long, long[]> entry : counters.entrySet()) {
+            if (entry.getValue()[0] < minCount) {
+                minCount = entry.getValue()[0];
+                minKey = entry.getKey();
+            }
+        }
+        counters.remove(minKey);
+        counters.put(key, new long[]{minCount + 1, minCount});
+    }
+
+    /**
+     * Restores a counter, e.g. from a checkpoint.
+     *
+     * @param key   the tracked key
+     * @param count the estimated count
+     * @param error the overestimation error of the count
+     */
+    public void restore(long key, long count, long error) {
+        if (counters.size() < capacity || counters.containsKey(key)) {
+            counters.put(key, new long[]{count, error});
+        }
+    }
+
+    /**
+     * Visits every tracked key with its estimated count.
+     *
+     * @param consumer receives each key and its count
+     */
+    public void forEach(ObjLongConsumer<Long> consumer) {
+        counters.forEach((key, counter) -> consumer.accept(key, counter[0]));
+    }
+
+    /**
+     * Returns the overestimation error of a tracked key.
+     *
+     * @param key the tracked key
+     * @return the error bound, or 0 if the key is not tracked
+     */
+    public long errorOf(long key) {
+        long[] counter = counters.get(key);
+        return counter == null ? 0 : counter[1];
+    }
+
+    /**
+     * Removes every counter.
+     */
+    public void clear() {
+        counters.clear();
+    }
+}
@@ -0,0 +1,155 @@
+package com.project.libmanager.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-bucket rate limiter keyed by arbitrary strings.
+ * Each key holds a single small bucket (two longs plus its limits), so memory is O(1) per active key;
+ * buckets that have been idle long enough to refill completely carry no information and
+ * are dropped by {@link #evictIdle(long)}.
+ *
+ * @implNote Buckets are mutated under one of a fixed set of striped locks chosen by key hash,
+ * so unrelated keys rarely contend and no lock objects are allocated per key. Token counts are
+ * kept in fixed-point milli-tokens to avoid floating point drift. When the table is full, a new
+ * key first triggers a sweep for full buckets (at most once per {@link #SWEEP_INTERVAL_NANOS});
+ * if that frees nothing the new key is rejected, so flooding the table with keys never turns
+ * limiting off.
+ */
+public class TokenBucketLimiter {
+    private static final int STRIPES = 64;          // Number of lock stripes; power of two
+    private static final long SCALE = 1000L;        // Milli-tokens per token
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1); // Min gap between full-table sweeps
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[STRIPES];
+    private final int maxKeys;                      // Upper bound on tracked keys
+    private final AtomicLong lastSweepNanos;        // Start of the last full-table sweep
+
+    /**
+     * Creates a limiter.
+     *
+     * @param maxKeys maximum number of keys tracked at once; new keys beyond it are rejected
+     *                unless a sweep can reclaim full buckets
+     */
+    public TokenBucketLimiter(int maxKeys) {
+        this.maxKeys = maxKeys;
+        this.lastSweepNanos = new AtomicLong(System.nanoTime() - SWEEP_INTERVAL_NANOS);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Tries to take one token from a key's bucket.
+     *
+     * @param key              bucket key
+     * @param capacity         maximum tokens the bucket holds (burst size)
+     * @param refillPerMinute  tokens added per minute
+     * @param nowNanos         current {@link System#nanoTime()}
+     * @return {@code 0} if a token was taken, otherwise the number of milliseconds until one is available;
+     * a new key arriving while the table is full waits for one refill interval
+     */
+    public long tryAcquire(String key, int capacity, int refillPerMinute, long nowNanos) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys && !makeRoom(nowNanos)) {
+                return Math.max(1, 60_000L / refillPerMinute); // Fail closed; retry once a token would refill
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, refillPerMinute, nowNanos));
+        }
+        synchronized (lockFor(key)) {
+            refill(bucket, nowNanos);
+            if (bucket.tokens >= SCALE) {
+                bucket.tokens -= SCALE;
+                return 0;
+            }
+            // Time until the missing fraction of a token has been refilled
+            long missing = SCALE - bucket.tokens;
+            return Math.max(1, (long) Math.ceil(missing * 60_000.0 / (refillPerMinute * (double) SCALE)));
+        }
+    }
+
+    /**
+     * Drops buckets that have not been refilled for the given time.
+     *
+     * @param idleNanos idle time after which a bucket is considered full and forgettable
+     * @return number of buckets removed
+     */
+    public int evictIdle(long idleNanos) {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (Iterator<Bucket> it = buckets.values().iterator(); it.hasNext(); ) {
+            if (now - it.next().lastRefillNanos > idleNanos) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the number of tracked keys.
+     *
+     * @return active bucket count
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Frees space for a new key by dropping buckets that have refilled completely.
+     *
+     * @param nowNanos current {@link System#nanoTime()}
+     * @return {@code true} if the table is below its bound afterwards
+     * @implNote Only one caller sweeps per interval; others see the result of the last sweep, so a
+     * flood of new keys against a full table costs one scan per second, not one per request.
+     */
+    private boolean makeRoom(long nowNanos) {
+        long last = lastSweepNanos.get();
+        if (nowNanos - last >= SWEEP_INTERVAL_NANOS && lastSweepNanos.compareAndSet(last, nowNanos)) {
+            buckets.entrySet().removeIf(entry -> {
+                synchronized (lockFor(entry.getKey())) {
+                    Bucket bucket = entry.getValue();
+                    refill(bucket, nowNanos);
+                    return bucket.tokens >= bucket.capacity * SCALE;
+                }
+            });
+        }
+        return buckets.size() < maxKeys;
+    }
+
+    private Object lockFor(String key) {
+        return locks[key.hashCode() & (STRIPES - 1)];
+    }
+
+    // Adds tokens for the time since the last refill; caller holds the key's stripe lock
+    private static void refill(Bucket bucket, long nowNanos) {
+        // Milli-tokens per nanosecond = refill * SCALE / 60e9
+        long elapsed = nowNanos - bucket.lastRefillNanos;
+        if (elapsed > 0) {
+            long added = (long) (elapsed * (bucket.refillPerMinute * (double) SCALE / 60_000_000_000L));
+            if (added > 0) {
+                bucket.tokens = Math.min(bucket.capacity * SCALE, bucket.tokens + added);
+                bucket.lastRefillNanos = nowNanos;
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private final int capacity;        // Burst size in tokens
+        private final int refillPerMinute; // Tokens added per minute
+        private long tokens;               // Available milli-tokens
+        private long lastRefillNanos;      // Last time tokens were added
+
+        private Bucket(int capacity, int refillPerMinute, long lastRefillNanos) {
+            this.capacity = capacity;
+            this.refillPerMinute = refillPerMinute;
+            this.tokens = capacity * SCALE;
+            this.lastRefillNanos = lastRefillNanos;
+        }
+    }
+}
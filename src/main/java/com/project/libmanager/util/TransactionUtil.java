@@ -0,0 +1,52 @@
+package com.project.libmanager.util;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utility class for deferring side effects until the surrounding transaction commits.
+ */
+@Component
+public class TransactionUtil {
+
+    /**
+     * Runs a task once the current transaction has committed.
+     *
+     * @param task the task to run
+     * @implNote When no transaction synchronization is active the task runs immediately,
+     * so callers behave the same inside and outside transactional methods.
+     */
+    public void runAfterCommit(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+        });
+    }
+
+    /**
+     * Runs a task if the current transaction rolls back.
+     *
+     * @param task the task to run, typically undoing a non-transactional side effect
+     * @implNote Does nothing when no transaction synchronization is active.
+     */
+    public void runAfterRollback(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    task.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package com.project.libmanager.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.project.libmanager.constant.TokenType;
+import com.project.libmanager.repository.LoginDetailRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Cost of {@link CustomDecoder#decode(String)} for valid HS512 access tokens whose sessions are already
+ * known active, so no database lookup is involved.
+ *
+ * <p>Run with {@code java -cp <test classpath> org.openjdk.jmh.Main CustomDecoderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class CustomDecoderBenchmark {
+    private static final String SIGN_KEY =
+            "benchmark-signing-key-benchmark-signing-key-benchmark-signing-key-0123456789";
+    private static final int CACHE_SIZE = 1024;         // Default app.jwt-decoder.cache-size
+    private static final int DISTINCT_TOKENS = 4096;    // More than the cache holds, so every decode misses
+
+    private final AtomicInteger next = new AtomicInteger();
+    private CustomDecoder decoder;
+    private String[] tokens;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        SessionRevocationCache sessions = new SessionRevocationCache();
+        ReflectionTestUtils.setField(sessions, "activeTtl", 3600L);
+        ReflectionTestUtils.setField(sessions, "maxActive", 100_000);
+        decoder = new CustomDecoder(SIGN_KEY, CACHE_SIZE, mock(LoginDetailRepository.class), sessions);
+
+        tokens = new String[DISTINCT_TOKENS];
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        for (int i = 0; i < tokens.length; i++) {
+            String jti = UUID.randomUUID().toString();
+            tokens[i] = accessToken(jti, expiresAt);
+            sessions.markActive(jti, expiresAt);
+        }
+    }
+
+    /**
+     * One token decoded over and over, as with a client sending the same bearer token on every request.
+     */
+    @Benchmark
+    public Jwt decodeRepeatedToken() {
+        return decoder.decode(tokens[0]);
+    }
+
+    /**
+     * Tokens cycled so that none is seen again before it leaves the cache: full parse and verify each time.
+     */
+    @Benchmark
+    public Jwt decodeDistinctTokens() {
+        return decoder.decode(tokens[Math.floorMod(next.getAndIncrement(), DISTINCT_TOKENS)]);
+    }
+
+    private static String accessToken(String jti, Instant expiresAt) throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("reader@example.com")
+                .issuer("libmanager")
+                .issueTime(new Date())
+                .expirationTime(Date.from(expiresAt))
+                .jwtID(jti)
+                .claim("scope", "ROLE_USER")
+                .claim("type", TokenType.ACCESS.name())
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS512), claims);
+        jwt.sign(new MACSigner(SIGN_KEY.getBytes()));
+        return jwt.serialize();
+    }
+}
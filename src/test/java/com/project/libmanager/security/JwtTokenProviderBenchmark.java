@@ -0,0 +1,86 @@
+package com.project.libmanager.security;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.SignedJWT;
+import com.project.libmanager.constant.PredefinedRole;
+import com.project.libmanager.constant.TokenType;
+import com.project.libmanager.entity.Role;
+import com.project.libmanager.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing and verifying tokens with {@link JwtTokenProvider}, shared by several threads as the
+ * singleton bean is in the application.
+ *
+ * <p>Run with {@code java -cp <test classpath> org.openjdk.jmh.Main JwtTokenProviderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtTokenProviderBenchmark {
+    private static final String SIGN_KEY =
+            "benchmark-signing-key-benchmark-signing-key-benchmark-signing-key-0123456789";
+
+    private JwtTokenProvider provider;
+    private User user;
+    private String jti;
+    private String accessToken;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        // Same root level as the application; without a configuration Logback would log at DEBUG
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+
+        provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "signKey", SIGN_KEY);
+        ReflectionTestUtils.setField(provider, "validDuration", 3600L);
+        ReflectionTestUtils.setField(provider, "refreshDuration", 86400L);
+        ReflectionTestUtils.setField(provider, "resetDuration", 900L);
+        provider.initCrypto();
+
+        Set<Role> roles = new HashSet<>();
+        roles.add(Role.builder().name(PredefinedRole.USER_ROLE).build());
+        roles.add(Role.builder().name(PredefinedRole.ADMIN_ROLE).build());
+        user = User.builder().email("reader@example.com").roles(roles).build();
+        jti = UUID.randomUUID().toString();
+        accessToken = provider.generateToken(user, TokenType.ACCESS, jti);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return provider.generateToken(user, TokenType.ACCESS, jti);
+    }
+
+    @Benchmark
+    public String renewRefreshToken() {
+        return provider.renewRefreshToken(user, jti);
+    }
+
+    @Benchmark
+    public SignedJWT verifyToken() {
+        return provider.verifyToken(accessToken);
+    }
+}
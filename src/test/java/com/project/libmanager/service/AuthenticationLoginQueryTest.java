@@ -0,0 +1,121 @@
+package com.project.libmanager.service;
+
+import com.project.libmanager.constant.PredefinedRole;
+import com.project.libmanager.entity.LoginDetail;
+import com.project.libmanager.repository.LoginDetailRepository;
+import com.project.libmanager.security.AuthenticatedUserResolver;
+import com.project.libmanager.security.CustomUserDetails;
+import com.project.libmanager.security.CustomUserDetailsService;
+import com.project.libmanager.security.JwtTokenProvider;
+import com.project.libmanager.security.SessionRevocationCache;
+import com.project.libmanager.security.UserClaimsCache;
+import com.project.libmanager.service.dto.request.AuthenticationRequest;
+import com.project.libmanager.service.dto.response.AuthenticationResponse;
+import com.project.libmanager.service.impl.AuthenticationServiceImpl;
+import com.project.libmanager.service.impl.LoginDetailServiceImpl;
+import com.project.libmanager.service.impl.UserServiceImpl;
+import com.project.libmanager.service.mapper.LoginDetailMapper;
+import com.project.libmanager.util.CommonUtil;
+import com.project.libmanager.util.CookieUtil;
+import com.project.libmanager.validation.UserStatusValidator;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies that a login loads the user once, roles included, and reuses it for token issuance and
+ * session creation.
+ */
+class AuthenticationLoginQueryTest extends JpaQueryCountTest {
+    private static final String EMAIL = "reader@example.com";
+    private static final String PASSWORD = "Password1!";
+
+    @Autowired
+    private LoginDetailRepository loginDetailRepository;
+
+    private AuthenticationServiceImpl authenticationService;
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4); // Low cost; hashing is not under test
+        UserServiceImpl userService = newUserService(passwordEncoder, mock(UserClaimsCache.class),
+                mock(AuthenticatedUserResolver.class));
+        userDetailsService = new CustomUserDetailsService(userService, new UserStatusValidator());
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        AuthenticationManagerBuilder authenticationManagerBuilder = mock(AuthenticationManagerBuilder.class);
+        when(authenticationManagerBuilder.getObject()).thenReturn(new ProviderManager(provider));
+
+        JwtTokenProvider jwtTokenProvider = mock(JwtTokenProvider.class);
+        when(jwtTokenProvider.buildScope(any())).thenReturn("ROLE_USER");
+        when(jwtTokenProvider.generateToken(eq(EMAIL), eq("ROLE_USER"), any(), anyString())).thenReturn("token");
+        CommonUtil commonUtil = mock(CommonUtil.class);
+        when(commonUtil.generateJTI()).thenReturn("jti-1");
+
+        authenticationService = new AuthenticationServiceImpl(
+                userRepository,
+                mock(IMaintenanceService.class),
+                jwtTokenProvider,
+                authenticationManagerBuilder,
+                userService,
+                new LoginDetailServiceImpl(
+                        loginDetailRepository,
+                        Mappers.getMapper(LoginDetailMapper.class),
+                        userRepository,
+                        mock(SessionRevocationCache.class)),
+                commonUtil,
+                mock(IActivityLogService.class),
+                mock(CookieUtil.class),
+                mock(UserClaimsCache.class));
+        ReflectionTestUtils.setField(authenticationService, "refreshDuration", 3600L);
+        ReflectionTestUtils.setField(authenticationService, "validDuration", 600L);
+
+        var userRole = persistRole(PredefinedRole.USER_ROLE);
+        var reader = persistRole("READER");
+        persistUser(EMAIL, userRole, reader).setPassword(passwordEncoder.encode(PASSWORD));
+    }
+
+    @Test
+    void authenticate_loadsUserOnceAndInsertsOneSession() {
+        AuthenticationRequest request = AuthenticationRequest.builder().email(EMAIL).password(PASSWORD).build();
+
+        long statements = countStatements(() -> {
+            AuthenticationResponse result = authenticationService.authenticate(request, mock(HttpServletResponse.class));
+            assertThat(result.getAccessToken()).isEqualTo("token");
+        });
+
+        // One select for the user and its roles, one insert for the session row
+        assertThat(statements).isEqualTo(2);
+        List<LoginDetail> sessions = loginDetailRepository.findAll();
+        assertThat(sessions).singleElement().satisfies(session -> assertThat(session.getJti()).isEqualTo("jti-1"));
+    }
+
+    @Test
+    void loadUserByUsername_fetchesUserAndRolesInOneStatement() {
+        long statements = countStatements(() -> {
+            CustomUserDetails details = (CustomUserDetails) userDetailsService.loadUserByUsername(EMAIL);
+            assertThat(details.getAuthorities()).hasSize(2);
+        });
+
+        assertThat(statements).isEqualTo(1);
+    }
+}
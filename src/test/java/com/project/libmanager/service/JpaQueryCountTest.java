@@ -0,0 +1,156 @@
+package com.project.libmanager.service;
+
+import com.project.libmanager.constant.VerificationStatus;
+import com.project.libmanager.entity.Role;
+import com.project.libmanager.entity.User;
+import com.project.libmanager.repository.BorrowingRepository;
+import com.project.libmanager.repository.RoleRepository;
+import com.project.libmanager.repository.UserRepository;
+import com.project.libmanager.security.AuthenticatedUserResolver;
+import com.project.libmanager.security.UserClaimsCache;
+import com.project.libmanager.service.impl.UserServiceImpl;
+import com.project.libmanager.service.mapper.UserMapper;
+import com.project.libmanager.specification.UserQueryService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Base class for tests that count the SQL statements a service path sends to the database.
+ * Runs the real JPA mappings and repositories on an embedded H2 database with Hibernate statistics on,
+ * so a lazy association touched per row shows up as extra statements, which mocked repositories cannot
+ * reveal.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+        "spring.liquibase.enabled=false"
+})
+@ContextConfiguration(classes = JpaQueryCountTest.JpaConfig.class)
+abstract class JpaQueryCountTest {
+    @Autowired
+    protected TestEntityManager entityManager;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected RoleRepository roleRepository;
+
+    @Autowired
+    protected BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private int sequence;
+
+    /**
+     * JPA slice limited to the entity and repository packages; the application class also scans
+     * every component, which a repository test must not load.
+     */
+    @Configuration
+    @EntityScan(basePackageClasses = User.class)
+    @EnableJpaRepositories(basePackageClasses = UserRepository.class)
+    static class JpaConfig {
+    }
+
+    @BeforeEach
+    void authenticateAuditor() {
+        // Audit callbacks read the creator from the security context
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("seed@example.com", null));
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Runs an action against a cold persistence context and counts the statements it prepares.
+     *
+     * @param action the service call under test
+     * @return the number of JDBC statements prepared while the action ran
+     */
+    protected long countStatements(Runnable action) {
+        // Write pending seed data, then forget it so every association is loaded from the database
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Builds a user service on the real repositories, mapper and query service; the remaining
+     * collaborators are mocks.
+     *
+     * @param passwordEncoder           encoder used for password checks and changes
+     * @param userClaimsCache           claims cache the service evicts on updates
+     * @param authenticatedUserResolver resolver of the acting user
+     * @return the service under test
+     */
+    protected UserServiceImpl newUserService(PasswordEncoder passwordEncoder, UserClaimsCache userClaimsCache,
+                                             AuthenticatedUserResolver authenticatedUserResolver) {
+        return new UserServiceImpl(
+                userRepository,
+                roleRepository,
+                Mappers.getMapper(UserMapper.class),
+                passwordEncoder,
+                new UserQueryService(userRepository, entityManager.getEntityManager()),
+                mock(IActivityLogService.class),
+                borrowingRepository,
+                mock(ILoginDetailService.class),
+                userClaimsCache,
+                authenticatedUserResolver,
+                mock(IUserExistenceService.class));
+    }
+
+    /**
+     * Builds a user service as {@link #newUserService(PasswordEncoder, UserClaimsCache, AuthenticatedUserResolver)}
+     * with a mocked encoder, claims cache and resolver.
+     *
+     * @return the service under test
+     */
+    protected UserServiceImpl newUserService() {
+        return newUserService(mock(PasswordEncoder.class), mock(UserClaimsCache.class),
+                mock(AuthenticatedUserResolver.class));
+    }
+
+    protected Role persistRole(String name) {
+        return entityManager.persist(Role.builder().name(name).description(name + " role").build());
+    }
+
+    protected User persistUser(String email, Role... roles) {
+        int n = ++sequence;
+        return entityManager.persist(User.builder()
+                .email(email)
+                .phoneNumber(String.format("09%08d", n))
+                .password("{noop}Password1!")
+                .fullName("User " + n)
+                .verificationStatus(VerificationStatus.FULLY_VERIFIED)
+                .roles(new HashSet<>(Arrays.asList(roles)))
+                .build());
+    }
+}
@@ -0,0 +1,82 @@
+package com.project.libmanager.service;
+
+import com.project.libmanager.constant.PredefinedRole;
+import com.project.libmanager.criteria.UserCriteria;
+import com.project.libmanager.entity.Role;
+import com.project.libmanager.service.dto.response.UserResponse;
+import com.project.libmanager.service.impl.UserServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that user listings load a whole page, roles included, with a number of SQL statements that
+ * does not grow with the page size.
+ */
+class UserPageMappingTest extends JpaQueryCountTest {
+    private static final int[] PAGE_SIZES = {1, 10, 50};
+
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = newUserService();
+
+        Role user = persistRole(PredefinedRole.USER_ROLE);
+        Role reader = persistRole("READER");
+        // More users than the largest page, so every page is full and needs a count query
+        for (int i = 1; i <= 60; i++) {
+            persistUser("user" + i + "@example.com", user, reader);
+        }
+    }
+
+    @Test
+    void getUsers_statementCountDoesNotGrowWithPageSize() {
+        List<Long> counts = countPerPageSize(size -> {
+            Page<UserResponse> page = userService.getUsers(PageRequest.of(0, size));
+            assertRolesLoaded(page, size);
+        });
+
+        assertThat(counts).as("statements for page sizes 1, 10, 50").containsOnly(counts.get(0));
+    }
+
+    @Test
+    void searchUser_statementCountDoesNotGrowWithPageSize() {
+        List<Long> counts = countPerPageSize(size -> {
+            Page<UserResponse> page = userService.searchUser(new UserCriteria(), PageRequest.of(0, size));
+            assertRolesLoaded(page, size);
+        });
+
+        assertThat(counts).as("statements for page sizes 1, 10, 50").containsOnly(counts.get(0));
+    }
+
+    @Test
+    void mapUserPage_keepsPageOrder() {
+        // Descending order differs from the ID order the batch query returns
+        Page<UserResponse> page = userService.getUsers(PageRequest.of(0, 10, Sort.by("id").descending()));
+
+        List<Long> ids = page.getContent().stream().map(UserResponse::getId).toList();
+        assertThat(ids).hasSize(10).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+    }
+
+    private List<Long> countPerPageSize(IntConsumer call) {
+        List<Long> counts = new ArrayList<>();
+        for (int size : PAGE_SIZES) {
+            counts.add(countStatements(() -> call.accept(size)));
+        }
+        return counts;
+    }
+
+    private static void assertRolesLoaded(Page<UserResponse> page, int size) {
+        assertThat(page.getContent()).hasSize(size);
+        assertThat(page.getContent()).allSatisfy(user -> assertThat(user.getRoles()).hasSize(2));
+    }
+}
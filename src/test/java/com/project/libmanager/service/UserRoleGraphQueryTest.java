@@ -0,0 +1,190 @@
+package com.project.libmanager.service;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.project.libmanager.config.WebSocketChatHandler;
+import com.project.libmanager.constant.PredefinedRole;
+import com.project.libmanager.constant.TokenType;
+import com.project.libmanager.constant.VerificationStatus;
+import com.project.libmanager.entity.Role;
+import com.project.libmanager.entity.User;
+import com.project.libmanager.repository.MessageRepository;
+import com.project.libmanager.repository.TopicRepository;
+import com.project.libmanager.repository.TopicSubscriptionRepository;
+import com.project.libmanager.security.AuthenticatedUserResolver;
+import com.project.libmanager.security.CustomUserDetails;
+import com.project.libmanager.security.CustomUserDetailsService;
+import com.project.libmanager.security.JwtTokenProvider;
+import com.project.libmanager.security.UserClaimsCache;
+import com.project.libmanager.service.dto.request.UserUpdateRequest;
+import com.project.libmanager.service.impl.AuthenticationServiceImpl;
+import com.project.libmanager.service.impl.MessageServiceImpl;
+import com.project.libmanager.service.impl.UserServiceImpl;
+import com.project.libmanager.util.CommonUtil;
+import com.project.libmanager.util.CookieUtil;
+import com.project.libmanager.util.TransactionUtil;
+import com.project.libmanager.validation.UserStatusValidator;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Guards against N+1 role loading: every auth and admin path that reads a user's roles must load the
+ * user and its roles together through the {@code User.withRoles} entity graph. Each path runs against
+ * H2 and must prepare the same, small number of statements no matter which user or how many users.
+ */
+class UserRoleGraphQueryTest extends JpaQueryCountTest {
+    private static final int USERS = 5;
+
+    private final UserClaimsCache userClaimsCache = mock(UserClaimsCache.class);
+    private final AuthenticatedUserResolver authenticatedUserResolver = mock(AuthenticatedUserResolver.class);
+    private final JwtTokenProvider jwtTokenProvider = mock(JwtTokenProvider.class);
+
+    private UserServiceImpl userService;
+    private Role userRole;
+    private Role readerRole;
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        userService = newUserService(mock(PasswordEncoder.class), userClaimsCache, authenticatedUserResolver);
+        // Acting admin is resolved per request; a detached stand-in keeps it out of the count
+        when(authenticatedUserResolver.getCurrentUser()).thenReturn(
+                User.builder().id(0L).email("acting-admin@example.com").roles(Set.of()).build());
+
+        persistUser("admin@example.com", persistRole(PredefinedRole.ADMIN_ROLE));
+        userRole = persistRole(PredefinedRole.USER_ROLE);
+        readerRole = persistRole("READER");
+        for (int i = 1; i <= USERS; i++) {
+            users.add(persistUser("reader" + i + "@example.com", userRole, readerRole));
+        }
+    }
+
+    @Test
+    void getUser_loadsUserAndRolesInOneStatement() {
+        List<Long> counts = countPerUser(user ->
+                assertThat(userService.getUser(user.getId()).getRoles()).hasSize(2));
+
+        assertThat(counts).containsOnly(1L);
+    }
+
+    @Test
+    void updateUser_loadsUserWithRolesThenEachRequestedRole() {
+        List<Long> counts = countPerUser(user -> userService.updateUser(user.getId(), UserUpdateRequest.builder()
+                .fullName("Renamed " + user.getId())
+                .verificationStatus(VerificationStatus.FULLY_VERIFIED) // Mapper copies nulls too
+                .listRole(List.of(PredefinedRole.USER_ROLE))
+                .build()));
+
+        // User with roles, then the single requested role by name; the update itself is flushed on commit
+        assertThat(counts).containsOnly(2L);
+    }
+
+    @Test
+    void deleteUser_loadsUserWithRolesThenChecksOpenBorrowings() {
+        List<Long> counts = countPerUser(user -> userService.deleteUser(user.getId()));
+
+        assertThat(counts).containsOnly(2L);
+    }
+
+    @Test
+    void adminConversations_loadAllUsersWithRolesInOneStatement() {
+        User admin = userRepository.findByEmail("admin@example.com").orElseThrow();
+        when(authenticatedUserResolver.getCurrentUser()).thenReturn(admin);
+        MessageServiceImpl messageService = new MessageServiceImpl(
+                mock(MessageRepository.class),
+                userRepository,
+                mock(TopicRepository.class),
+                mock(TopicSubscriptionRepository.class),
+                mock(WebSocketChatHandler.class),
+                authenticatedUserResolver);
+
+        long before = countStatements(() -> assertThat(messageService.getMessAdminWithAllUser()).hasSize(USERS));
+        for (int i = 1; i <= USERS; i++) {
+            persistUser("late" + i + "@example.com", userRole, readerRole);
+        }
+        long after = countStatements(() -> assertThat(messageService.getMessAdminWithAllUser()).hasSize(2 * USERS));
+
+        assertThat(before).isEqualTo(1);
+        assertThat(after).isEqualTo(before);
+    }
+
+    @Test
+    void refreshToken_loadsRolesWithUserOnCacheMiss() throws Exception {
+        AuthenticationServiceImpl authenticationService = new AuthenticationServiceImpl(
+                userRepository,
+                mock(IMaintenanceService.class),
+                jwtTokenProvider,
+                null,
+                userService,
+                mock(ILoginDetailService.class),
+                mock(CommonUtil.class),
+                mock(IActivityLogService.class),
+                mock(CookieUtil.class),
+                userClaimsCache);
+        ReflectionTestUtils.setField(authenticationService, "refreshDuration", 3600L);
+        when(jwtTokenProvider.buildScope(any())).thenReturn("USER READER");
+
+        List<Long> counts = new ArrayList<>();
+        for (User user : users) {
+            SignedJWT signedJWT = mock(SignedJWT.class);
+            when(signedJWT.getJWTClaimsSet()).thenReturn(new JWTClaimsSet.Builder()
+                    .subject(user.getEmail())
+                    .jwtID("jti-" + user.getId())
+                    .claim("type", TokenType.REFRESH.name())
+                    .build());
+            when(jwtTokenProvider.verifyToken(anyString())).thenReturn(signedJWT);
+            counts.add(countStatements(
+                    () -> authenticationService.refreshToken("refresh", mock(HttpServletResponse.class))));
+        }
+
+        // Claims cache is a mock returning null, so every call is a miss
+        assertThat(counts).containsOnly(1L);
+    }
+
+    @Test
+    void loadUserByUsername_loadsUserAndRolesInOneStatement() {
+        CustomUserDetailsService detailsService =
+                new CustomUserDetailsService(userService, new UserStatusValidator());
+
+        List<Long> counts = countPerUser(user -> assertThat(
+                ((CustomUserDetails) detailsService.loadUserByUsername(user.getEmail())).getAuthorities()).hasSize(2));
+
+        assertThat(counts).containsOnly(1L);
+    }
+
+    @Test
+    void currentUserForUpdate_loadsUserAndRolesInOneStatement() {
+        List<Long> counts = countPerUser(user -> {
+            SecurityContextHolder.getContext().setAuthentication(
+                    new TestingAuthenticationToken(user.getEmail(), null, "USER"));
+            User loaded = new AuthenticatedUserResolver(userRepository, new TransactionUtil()).getCurrentUserForUpdate();
+            assertThat(loaded.getRoles()).hasSize(2);
+        });
+
+        assertThat(counts).containsOnly(1L);
+    }
+
+    private List<Long> countPerUser(Consumer<User> call) {
+        List<Long> counts = new ArrayList<>();
+        for (User user : users) {
+            counts.add(countStatements(() -> call.accept(user)));
+        }
+        return counts;
+    }
+}
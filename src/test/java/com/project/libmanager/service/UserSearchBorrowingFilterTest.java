@@ -0,0 +1,120 @@
+package com.project.libmanager.service;
+
+import com.project.libmanager.constant.PredefinedRole;
+import com.project.libmanager.criteria.UserCriteria;
+import com.project.libmanager.entity.Book;
+import com.project.libmanager.entity.BookType;
+import com.project.libmanager.entity.Borrowing;
+import com.project.libmanager.entity.Role;
+import com.project.libmanager.entity.User;
+import com.project.libmanager.specification.UserQueryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import tech.jhipster.service.filter.InstantFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that combined borrowing filters in the user search return every matching user exactly once,
+ * with exact page counts, even when a user has several borrowings matching the filters.
+ */
+class UserSearchBorrowingFilterTest extends JpaQueryCountTest {
+    private static final Instant CUTOFF = Instant.parse("2024-06-01T00:00:00Z");
+    private static final int MATCHING_USERS = 25;
+    private static final int PAGE_SIZE = 10;
+
+    private UserQueryService userQueryService;
+    private final Set<Long> matchingIds = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        userQueryService = new UserQueryService(userRepository, entityManager.getEntityManager());
+
+        Role role = persistRole(PredefinedRole.USER_ROLE);
+        BookType type = entityManager.persist(BookType.builder().name("Novel").build());
+        Book dune = persistBook(type, "978-0441013593", "Dune");
+        Book emma = persistBook(type, "978-0141439587", "Emma");
+
+        // Three matching borrowings each: joins would repeat these users three times
+        for (int i = 1; i <= MATCHING_USERS; i++) {
+            User user = persistUser("match" + i + "@example.com", role);
+            for (int day = 1; day <= 3; day++) {
+                persistBorrowing(user, dune, CUTOFF.plus(Duration.ofDays(day)));
+            }
+            persistBorrowing(user, emma, CUTOFF.plus(Duration.ofDays(5)));
+            matchingIds.add(user.getId());
+        }
+        // Each filter matches a different borrowing; both have to match the same one
+        for (int i = 1; i <= 10; i++) {
+            User user = persistUser("split" + i + "@example.com", role);
+            persistBorrowing(user, dune, CUTOFF.minus(Duration.ofDays(30)));
+            persistBorrowing(user, emma, CUTOFF.plus(Duration.ofDays(1)));
+        }
+        for (int i = 1; i <= 5; i++) {
+            persistUser("idle" + i + "@example.com", role);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findByCriteria_titleAndBorrowDate_returnsEachUserOnceWithExactPaging() {
+        UserCriteria criteria = new UserCriteria();
+        StringFilter title = new StringFilter();
+        title.setContains("dune");
+        criteria.setBookTitle(title);
+        InstantFilter borrowDate = new InstantFilter();
+        borrowDate.setGreaterThanOrEqual(CUTOFF);
+        criteria.setBorrowDate(borrowDate);
+
+        List<Long> ids = new ArrayList<>();
+        Page<User> page = userQueryService.findByCriteria(criteria, PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+        assertThat(page.getTotalElements()).isEqualTo(MATCHING_USERS);
+        assertThat(page.getTotalPages()).isEqualTo(3);
+        while (true) {
+            page.getContent().forEach(user -> ids.add(user.getId()));
+            if (!page.hasNext()) {
+                break;
+            }
+            page = userQueryService.findByCriteria(criteria, page.nextPageable());
+        }
+
+        assertThat(ids).doesNotHaveDuplicates().hasSize(MATCHING_USERS);
+        assertThat(ids).containsExactlyInAnyOrderElementsOf(matchingIds);
+    }
+
+    private Book persistBook(BookType type, String isbn, String title) {
+        return entityManager.persist(Book.builder()
+                .isbn(isbn)
+                .title(title)
+                .author("Author")
+                .type(type)
+                .stock(10)
+                .publisher("Publisher")
+                .publishedDate(Instant.parse("2000-01-01T00:00:00Z"))
+                .maxBorrowDays(14)
+                .location("A1")
+                .coverImageUrl("https://example.com/cover.png")
+                .build());
+    }
+
+    private void persistBorrowing(User user, Book book, Instant borrowDate) {
+        entityManager.persist(Borrowing.builder()
+                .user(user)
+                .book(book)
+                .borrowDate(borrowDate)
+                .dueDate(borrowDate.plus(Duration.ofDays(14)))
+                .build());
+    }
+}
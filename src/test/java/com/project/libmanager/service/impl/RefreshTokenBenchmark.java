@@ -0,0 +1,120 @@
+package com.project.libmanager.service.impl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.project.libmanager.constant.TokenType;
+import com.project.libmanager.repository.UserRepository;
+import com.project.libmanager.security.JwtTokenProvider;
+import com.project.libmanager.security.UserClaimsCache;
+import com.project.libmanager.service.IActivityLogService;
+import com.project.libmanager.service.ILoginDetailService;
+import com.project.libmanager.service.IMaintenanceService;
+import com.project.libmanager.service.IUserService;
+import com.project.libmanager.service.dto.response.AuthenticationResponse;
+import com.project.libmanager.util.CommonUtil;
+import com.project.libmanager.util.CookieUtil;
+import com.project.libmanager.util.TransactionUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Throughput of {@link AuthenticationServiceImpl#refreshToken} while the user's claims are cached, with
+ * several threads rotating sessions concurrently.
+ *
+ * <p>The conditional session update is stubbed to succeed, so the score is the service's own cost
+ * (verify, two signatures, cookies); a real refresh adds that one UPDATE. The user repository is stubbed
+ * to find nobody: a claims-cache miss would fail the benchmark instead of silently querying.
+ *
+ * <p>Run with {@code java -cp <test classpath> org.openjdk.jmh.Main RefreshTokenBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+@Threads(4)
+public class RefreshTokenBenchmark {
+    private static final String SIGN_KEY =
+            "benchmark-signing-key-benchmark-signing-key-benchmark-signing-key-0123456789";
+    private static final String EMAIL = "reader@example.com";
+    private static final int SESSIONS = 256;            // Distinct refresh tokens rotated by the threads
+
+    @Param({"INFO", "WARN"})
+    private String logLevel;                            // INFO is the application default
+
+    private final AtomicInteger next = new AtomicInteger();
+    private AuthenticationServiceImpl authenticationService;
+    private String[] refreshTokens;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.toLevel(logLevel));
+
+        JwtTokenProvider jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "signKey", SIGN_KEY);
+        ReflectionTestUtils.setField(jwtTokenProvider, "validDuration", 3600L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "refreshDuration", 86400L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "resetDuration", 900L);
+        ReflectionTestUtils.invokeMethod(jwtTokenProvider, "initCrypto");
+
+        UserClaimsCache userClaimsCache = new UserClaimsCache(new TransactionUtil());
+        ReflectionTestUtils.setField(userClaimsCache, "ttlSeconds", 3600L);
+        userClaimsCache.putScope(EMAIL, "ROLE_USER");
+
+        // Stub-only mocks keep no invocation history, so memory stays flat over millions of calls
+        ILoginDetailService loginDetailService = mock(ILoginDetailService.class, withSettings().stubOnly());
+        when(loginDetailService.updateLoginDetailIsEnable(anyString(), any(Instant.class))).thenReturn(1);
+
+        authenticationService = new AuthenticationServiceImpl(
+                mock(UserRepository.class, withSettings().stubOnly()),
+                mock(IMaintenanceService.class, withSettings().stubOnly()),
+                jwtTokenProvider,
+                mock(AuthenticationManagerBuilder.class, withSettings().stubOnly()),
+                mock(IUserService.class, withSettings().stubOnly()),
+                loginDetailService,
+                new CommonUtil(),
+                mock(IActivityLogService.class, withSettings().stubOnly()),
+                new CookieUtil(),
+                userClaimsCache);
+        ReflectionTestUtils.setField(authenticationService, "refreshDuration", 86400L);
+        ReflectionTestUtils.setField(authenticationService, "validDuration", 3600L);
+
+        refreshTokens = new String[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            refreshTokens[i] = jwtTokenProvider.generateToken(EMAIL, "ROLE_USER", TokenType.REFRESH,
+                    UUID.randomUUID().toString());
+        }
+    }
+
+    @Benchmark
+    public AuthenticationResponse refreshToken() {
+        String token = refreshTokens[Math.floorMod(next.getAndIncrement(), SESSIONS)];
+        return authenticationService.refreshToken(token, new MockHttpServletResponse());
+    }
+}
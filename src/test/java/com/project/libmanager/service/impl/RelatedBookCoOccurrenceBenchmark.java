@@ -0,0 +1,103 @@
+package com.project.libmanager.service.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Related-books recompute over a synthetic borrow history of {@code rows} (user, book) pairs.
+ * Users borrow {@code borrowingsPerUser} books each, about 80% from one favourite genre; the default
+ * 10M rows give 500k baskets and about 64M distinct book pairs, which needs a 3 GB heap.
+ *
+ * <p>Run with {@code java -cp <test classpath> org.openjdk.jmh.Main RelatedBookCoOccurrenceBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms3g", "-Xmx3g"})
+public class RelatedBookCoOccurrenceBenchmark {
+    private static final int BOOKS = 20_000;           // Catalogue size
+    private static final int GENRES = 100;             // Books are split evenly across genres
+    private static final int TOP_K = 10;               // Default app.related.top-k
+    private static final int MAX_BASKET_SIZE = 200;    // Default app.related.max-basket-size
+
+    @Param("10000000")
+    private long rows;                                 // Borrow rows fed into the recompute
+
+    @Param("20")
+    private int borrowingsPerUser;                     // Rows per user, i.e. basket size before dedup
+
+    private ForkJoinPool pool;                         // Stands in for the service's counting pool
+    private List<long[]> baskets;                      // Pre-grouped baskets for the counting benchmark
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        baskets = RelatedBookServiceImpl.groupBaskets(rows(), MAX_BASKET_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Streams the rows into per-user baskets, as the loader thread does with the JDBC cursor.
+     */
+    @Benchmark
+    public List<long[]> groupBaskets() {
+        return RelatedBookServiceImpl.groupBaskets(rows(), MAX_BASKET_SIZE);
+    }
+
+    /**
+     * Counts pairs and ranks the top-k neighbours of every book.
+     */
+    @Benchmark
+    public Map<Long, long[]> buildNeighbours() {
+        return RelatedBookServiceImpl.buildNeighbours(pool, baskets, TOP_K);
+    }
+
+    private Stream<Object[]> rows() {
+        // Generated lazily and boxed like driver rows, so the history is never held in memory
+        int booksPerGenre = BOOKS / GENRES;
+        return LongStream.range(0, rows).mapToObj(i -> {
+            long user = i / borrowingsPerUser;
+            long hash = mix(i);
+            long book;
+            if ((hash & 0xFF) < 205) {
+                long genre = Long.remainderUnsigned(mix(~user), GENRES);
+                book = genre * booksPerGenre + Long.remainderUnsigned(hash >>> 8, booksPerGenre);
+            } else {
+                book = Long.remainderUnsigned(hash >>> 8, BOOKS);
+            }
+            return new Object[]{user + 1, book + 1};
+        });
+    }
+
+    private static long mix(long value) {
+        // SplitMix64 finalizer; deterministic, so every run sees the same history
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,137 @@
+package com.project.libmanager.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Round-trip tests for {@link JsonPatch}: applying the diff of two trees to the first must give the second.
+ */
+class JsonPatchTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void diff_equalTrees_isEmpty() throws JsonProcessingException {
+        List<JsonPatch.Operation> operations = roundTrip(
+                "{\"id\":1,\"profile\":{\"name\":\"Ann\"}}",
+                "{\"id\":1,\"profile\":{\"name\":\"Ann\"}}");
+
+        assertThat(operations).isEmpty();
+    }
+
+    @Test
+    void diff_nestedObjects_patchesOnlyChangedLeaves() throws JsonProcessingException {
+        List<JsonPatch.Operation> operations = roundTrip(
+                "{\"id\":1,\"profile\":{\"name\":\"Ann\",\"address\":{\"city\":\"Hue\",\"zip\":\"53000\"}}}",
+                "{\"id\":1,\"profile\":{\"name\":\"Ann\",\"address\":{\"city\":\"Hanoi\",\"zip\":\"53000\"}}}");
+
+        assertThat(operations).singleElement().satisfies(operation -> {
+            assertThat(operation.op()).isEqualTo(JsonPatch.REPLACE);
+            assertThat(operation.path()).isEqualTo("/profile/address/city");
+            assertThat(operation.value().asText()).isEqualTo("Hanoi");
+        });
+    }
+
+    @Test
+    void diff_valueChangedToNull_roundTrips() throws JsonProcessingException {
+        List<JsonPatch.Operation> operations = roundTrip(
+                "{\"name\":\"Ann\",\"address\":{\"city\":\"Hue\"}}",
+                "{\"name\":null,\"address\":null}");
+
+        assertThat(operations).extracting(JsonPatch.Operation::op).containsOnly(JsonPatch.REPLACE);
+    }
+
+    @Test
+    void diff_valueChangedFromNull_roundTrips() throws JsonProcessingException {
+        List<JsonPatch.Operation> operations = roundTrip(
+                "{\"name\":null,\"address\":null}",
+                "{\"name\":\"Ann\",\"address\":{\"city\":\"Hue\"}}");
+
+        assertThat(operations).extracting(JsonPatch.Operation::op).containsOnly(JsonPatch.REPLACE);
+    }
+
+    @Test
+    void diff_addedAndRemovedFields_roundTrip() throws JsonProcessingException {
+        List<JsonPatch.Operation> operations = roundTrip(
+                "{\"id\":1,\"phone\":\"0900000000\",\"profile\":{\"nickname\":\"A\"}}",
+                "{\"id\":1,\"email\":\"ann@example.com\",\"profile\":{\"bio\":\"Reader\"}}");
+
+        assertThat(operations).extracting(JsonPatch.Operation::op, JsonPatch.Operation::path)
+                .containsExactlyInAnyOrder(
+                        tuple(JsonPatch.REMOVE, "/phone"),
+                        tuple(JsonPatch.REMOVE, "/profile/nickname"),
+                        tuple(JsonPatch.ADD, "/profile/bio"),
+                        tuple(JsonPatch.ADD, "/email"));
+    }
+
+    @Test
+    void diff_keysWithSlashAndTilde_areEscaped() throws JsonProcessingException {
+        List<JsonPatch.Operation> operations = roundTrip(
+                "{\"a/b\":{\"c~d\":1,\"~1\":\"x\"},\"~0/\":true}",
+                "{\"a/b\":{\"c~d\":2,\"~1\":\"y\"},\"~0/\":false}");
+
+        assertThat(operations).extracting(JsonPatch.Operation::path)
+                .containsExactlyInAnyOrder("/a~1b/c~0d", "/a~1b/~01", "/~00~1");
+    }
+
+    @Test
+    void diff_arrays_areReplacedWhole() throws JsonProcessingException {
+        List<JsonPatch.Operation> operations = roundTrip(
+                "{\"roles\":[\"USER\",\"READER\"],\"history\":[{\"book\":1},{\"book\":2}]}",
+                "{\"roles\":[\"USER\"],\"history\":[{\"book\":1},{\"book\":3}]}");
+
+        assertThat(operations).extracting(JsonPatch.Operation::op, JsonPatch.Operation::path)
+                .containsExactlyInAnyOrder(
+                        tuple(JsonPatch.REPLACE, "/roles"),
+                        tuple(JsonPatch.REPLACE, "/history"));
+    }
+
+    @Test
+    void diff_differentRootTypes_replacesWholeDocument() throws JsonProcessingException {
+        List<JsonPatch.Operation> operations = roundTrip("{\"id\":1}", "[1,2]");
+
+        assertThat(operations).singleElement()
+                .satisfies(operation -> assertThat(operation.path()).isEmpty());
+    }
+
+    @Test
+    void apply_doesNotModifySource() throws JsonProcessingException {
+        JsonNode before = tree("{\"profile\":{\"name\":\"Ann\"}}");
+        JsonNode after = tree("{\"profile\":{\"name\":\"Bob\"}}");
+
+        JsonPatch.apply(before, JsonPatch.diff(before, after));
+
+        assertThat(before).isEqualTo(tree("{\"profile\":{\"name\":\"Ann\"}}"));
+    }
+
+    @Test
+    void apply_pathWithoutParentObject_throws() throws JsonProcessingException {
+        JsonNode source = tree("{\"roles\":[\"USER\"]}");
+        List<JsonPatch.Operation> operations =
+                List.of(new JsonPatch.Operation(JsonPatch.REPLACE, "/roles/0", tree("\"ADMIN\"")));
+
+        assertThatThrownBy(() -> JsonPatch.apply(source, operations))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<JsonPatch.Operation> roundTrip(String beforeJson, String afterJson) throws JsonProcessingException {
+        JsonNode before = tree(beforeJson);
+        JsonNode after = tree(afterJson);
+
+        List<JsonPatch.Operation> operations = JsonPatch.diff(before, after);
+
+        assertThat(JsonPatch.apply(before, operations)).isEqualTo(after);
+        return operations;
+    }
+
+    private JsonNode tree(String json) throws JsonProcessingException {
+        return objectMapper.readTree(json);
+    }
+}